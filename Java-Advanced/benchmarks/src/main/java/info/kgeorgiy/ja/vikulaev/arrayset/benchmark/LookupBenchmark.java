@@ -0,0 +1,65 @@
+package info.kgeorgiy.ja.vikulaev.arrayset.benchmark;
+
+import info.kgeorgiy.ja.vikulaev.arrayset.ArraySet;
+import info.kgeorgiy.ja.vikulaev.arrayset.BlockedIntArraySet;
+import info.kgeorgiy.ja.vikulaev.arrayset.IntArraySet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Lookup throughput of boxed sorted array ({@link ArraySet}), {@code int[]} ({@link IntArraySet}),
+ * cache-line-blocked B+-tree ({@link BlockedIntArraySet}) and red-black tree ({@link TreeSet}).
+ * Half of the keys belong to the set, so both hits and misses are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class LookupBenchmark {
+    // Far more keys than fit in cache, so search paths of repeated keys don't stay warm between lookups
+    private static final int KEYS = 1 << 22;
+
+    @Param({"1000", "1000000", "100000000"})
+    public int size;
+
+    @Param({"boxed", "sorted", "blocked", "tree"})
+    public String layout;
+
+    private SortedSet<Integer> set;
+    private Integer[] keys;
+    private int next;
+
+    @Setup
+    public void setup() {
+        // Even numbers, so odd keys are misses
+        int[] values = IntStream.range(0, size).map(i -> 2 * i).toArray();
+        set = switch (layout) {
+            case "boxed" -> new ArraySet<>(IntStream.of(values).boxed().toList());
+            case "sorted" -> IntArraySet.of(values);
+            case "blocked" -> BlockedIntArraySet.of(values);
+            case "tree" -> IntStream.of(values).boxed().collect(TreeSet::new, TreeSet::add, TreeSet::addAll);
+            default -> throw new IllegalArgumentException("Unknown layout " + layout);
+        };
+        Random random = new Random(4875043285743285204L);
+        keys = random.ints(KEYS, 0, 2 * size).boxed().toArray(Integer[]::new);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        next = (next + 1) & (KEYS - 1);
+        return set.contains(keys[next]);
+    }
+
+    @Benchmark
+    public SortedSet<Integer> tailSet() {
+        next = (next + 1) & (KEYS - 1);
+        return set.tailSet(keys[next]);
+    }
+}
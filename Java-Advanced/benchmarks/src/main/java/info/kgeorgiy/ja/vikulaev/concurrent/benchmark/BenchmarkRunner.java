@@ -0,0 +1,27 @@
+package info.kgeorgiy.ja.vikulaev.concurrent.benchmark;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs benchmarks of solutions with allocation profiling ({@code -prof gc}),
+ * so that every performance change can be checked for both time and allocation regressions.
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Runs benchmarks.
+     *
+     * @param args optional regular expression of benchmarks to run, all benchmarks by default
+     * @throws RunnerException if benchmarks fail
+     */
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "info.kgeorgiy.ja.vikulaev")
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
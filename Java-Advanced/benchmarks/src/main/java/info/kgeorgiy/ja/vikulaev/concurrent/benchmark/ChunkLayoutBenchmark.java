@@ -0,0 +1,99 @@
+package info.kgeorgiy.ja.vikulaev.concurrent.benchmark;
+
+import info.kgeorgiy.ja.vikulaev.concurrent.IterativeParallelism;
+import info.kgeorgiy.ja.vikulaev.concurrent.Monoid;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * {@link IterativeParallelism} on array-backed and linked lists.
+ * {@code subListChunks} is what {@code count} cost when each chunk was a {@code subList} of the input,
+ * it runs chunks on the same kind of threads as {@code mode}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChunkLayoutBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"8", "32"})
+    public int threads;
+
+    @Param({"array", "linked"})
+    public String list;
+
+    @Param({"threads", "pool"})
+    public String mode;
+
+    private List<Integer> values;
+    private IterativeParallelism parallelism;
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() {
+        List<Integer> range = IntStream.range(0, size).boxed().toList();
+        values = switch (list) {
+            case "array" -> new ArrayList<>(range);
+            case "linked" -> new LinkedList<>(range);
+            default -> throw new IllegalArgumentException("Unknown list " + list);
+        };
+        parallelism = switch (mode) {
+            case "threads" -> new IterativeParallelism();
+            case "pool" -> new IterativeParallelism(threads);
+            default -> throw new IllegalArgumentException("Unknown mode " + mode);
+        };
+        executor = switch (mode) {
+            case "threads" -> Executors.newThreadPerTaskExecutor(Thread::new);
+            case "pool" -> new ForkJoinPool(threads);
+            default -> throw new IllegalArgumentException("Unknown mode " + mode);
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallelism.close();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int count() throws InterruptedException {
+        return parallelism.count(threads, values, value -> (value & 1) == 0);
+    }
+
+    @Benchmark
+    public long sum() throws InterruptedException {
+        // Sum of large lists doesn't fit into int
+        return parallelism.mapReduce(threads, values, Integer::longValue, new Monoid<>(0L, Long::sum));
+    }
+
+    @Benchmark
+    public long subListChunks() throws InterruptedException, ExecutionException {
+        int chunkSize = (size + threads - 1) / threads;
+        List<Callable<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < size; from += chunkSize) {
+            List<Integer> chunk = values.subList(from, Math.min(from + chunkSize, size));
+            chunks.add(() -> chunk.stream().filter(value -> (value & 1) == 0).count());
+        }
+        long result = 0;
+        for (Future<Long> future : executor.invokeAll(chunks)) {
+            result += future.get();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+package info.kgeorgiy.ja.vikulaev.concurrent.benchmark;
+
+import info.kgeorgiy.ja.vikulaev.concurrent.IterativeParallelism;
+import info.kgeorgiy.ja.vikulaev.concurrent.ParallelMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * {@link IterativeParallelism} on raw threads, on {@link ParallelMapperImpl} and on a fork-join pool
+ * for lists of 1 to 100M elements and predicates of different cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IterativeParallelismBenchmark {
+
+    @Param({"1", "1000", "1000000", "100000000"})
+    public int size;
+
+    @Param({"1", "8", "32"})
+    public int threads;
+
+    @Param({"threads", "mapper", "pool"})
+    public String mode;
+
+    @Param({"cheap", "expensive"})
+    public String workload;
+
+    private List<Integer> values;
+    private IntUnaryOperator function;
+    private ParallelMapperImpl mapper;
+    private IterativeParallelism parallelism;
+
+    @Setup
+    public void setup() {
+        values = new RangeList(size);
+        function = Workloads.byName(workload);
+        switch (mode) {
+            case "threads" -> parallelism = new IterativeParallelism();
+            case "mapper" -> {
+                mapper = new ParallelMapperImpl(threads);
+                parallelism = new IterativeParallelism(mapper);
+            }
+            case "pool" -> parallelism = new IterativeParallelism(threads);
+            default -> throw new IllegalArgumentException("Unknown mode " + mode);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallelism.close();
+        if (mapper != null) {
+            mapper.close();
+        }
+    }
+
+    @Benchmark
+    public Integer maximum() throws InterruptedException {
+        return parallelism.maximum(threads, values, Comparator.comparingInt(function::applyAsInt));
+    }
+
+    @Benchmark
+    public int count() throws InterruptedException {
+        return parallelism.count(threads, values, value -> (function.applyAsInt(value) & 1) == 0);
+    }
+}
@@ -0,0 +1,107 @@
+package info.kgeorgiy.ja.vikulaev.concurrent.benchmark;
+
+import info.kgeorgiy.ja.vikulaev.concurrent.ParallelMapperImpl;
+import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Throughput of {@link ParallelMapperImpl#map} against the monitor-based {@link LegacyParallelMapper}
+ * for lists of 1 to 1M elements and functions of different cost. Lists of 100M elements are measured
+ * by {@link Large} for the current mapper only: legacy one queues two lambdas per element and runs out of memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ParallelMapperBenchmark {
+
+    @Param({"1", "8", "32", "128"})
+    public int threads;
+
+    @Param({"1", "1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"legacy", "current"})
+    public String implementation;
+
+    @Param({"cheap", "expensive"})
+    public String workload;
+
+    private ParallelMapper mapper;
+    private List<Integer> args;
+    private Function<Integer, Integer> function;
+
+    @Setup
+    public void setup() {
+        mapper = switch (implementation) {
+            case "legacy" -> new LegacyParallelMapper(threads);
+            case "current" -> new ParallelMapperImpl(threads);
+            default -> throw new IllegalArgumentException("Unknown implementation " + implementation);
+        };
+        args = Collections.unmodifiableList(new RangeList(size));
+        function = function(workload);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mapper.close();
+    }
+
+    @Benchmark
+    public List<Integer> map() throws InterruptedException {
+        return mapper.map(function, args);
+    }
+
+    private static Function<Integer, Integer> function(final String workload) {
+        IntUnaryOperator operator = Workloads.byName(workload);
+        return operator::applyAsInt;
+    }
+
+    /**
+     * Same as {@link ParallelMapperBenchmark} for lists of 100M elements and {@link ParallelMapperImpl} only.
+     */
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, time = 5)
+    @Measurement(iterations = 5, time = 5)
+    @Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+    public static class Large {
+        private static final int SIZE = 100_000_000;
+
+        @Param({"1", "8", "32", "128"})
+        public int threads;
+
+        @Param({"cheap", "expensive"})
+        public String workload;
+
+        private ParallelMapper mapper;
+        private List<Integer> args;
+        private Function<Integer, Integer> function;
+
+        @Setup
+        public void setup() {
+            mapper = new ParallelMapperImpl(threads);
+            args = Collections.unmodifiableList(new RangeList(SIZE));
+            function = function(workload);
+        }
+
+        @TearDown
+        public void tearDown() {
+            mapper.close();
+        }
+
+        @Benchmark
+        public List<Integer> map() throws InterruptedException {
+            return mapper.map(function, args);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package info.kgeorgiy.ja.vikulaev.concurrent.benchmark;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Lazy list of {@code 0, 1, ..., size - 1} which doesn't keep up to 100M boxed values in memory.
+ */
+final class RangeList extends AbstractList<Integer> implements RandomAccess {
+    private final int size;
+
+    RangeList(final int size) {
+        this.size = size;
+    }
+
+    @Override
+    public Integer get(final int index) {
+        return index;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
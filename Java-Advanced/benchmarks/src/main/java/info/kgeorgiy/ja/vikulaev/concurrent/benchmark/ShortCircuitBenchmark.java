@@ -0,0 +1,74 @@
+package info.kgeorgiy.ja.vikulaev.concurrent.benchmark;
+
+import info.kgeorgiy.ja.vikulaev.concurrent.IterativeParallelism;
+import info.kgeorgiy.ja.vikulaev.concurrent.ParallelMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@code any}/{@code all} on a 100M-element list whose witness is near the front.
+ * {@code fullScan} is what every call cost before chunks were able to cancel each other.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShortCircuitBenchmark {
+
+    @Param({"100000000"})
+    public int size;
+
+    @Param({"1000"})
+    public int witness;
+
+    @Param({"8"})
+    public int threads;
+
+    @Param({"threads", "mapper", "pool"})
+    public String mode;
+
+    private List<Integer> values;
+    private ParallelMapperImpl mapper;
+    private IterativeParallelism parallelism;
+
+    @Setup
+    public void setup() {
+        values = new RangeList(size);
+        switch (mode) {
+            case "threads" -> parallelism = new IterativeParallelism();
+            case "mapper" -> {
+                mapper = new ParallelMapperImpl(threads);
+                parallelism = new IterativeParallelism(mapper);
+            }
+            case "pool" -> parallelism = new IterativeParallelism(threads);
+            default -> throw new IllegalArgumentException("Unknown mode " + mode);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallelism.close();
+        if (mapper != null) {
+            mapper.close();
+        }
+    }
+
+    @Benchmark
+    public boolean any() throws InterruptedException {
+        return parallelism.any(threads, values, value -> value == witness);
+    }
+
+    @Benchmark
+    public boolean all() throws InterruptedException {
+        return parallelism.all(threads, values, value -> value != witness);
+    }
+
+    @Benchmark
+    public boolean fullScan() throws InterruptedException {
+        return parallelism.count(threads, values, value -> value == witness) > 0;
+    }
+}
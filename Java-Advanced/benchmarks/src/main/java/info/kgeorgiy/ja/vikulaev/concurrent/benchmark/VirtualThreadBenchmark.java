@@ -0,0 +1,82 @@
+package info.kgeorgiy.ja.vikulaev.concurrent.benchmark;
+
+import info.kgeorgiy.ja.vikulaev.concurrent.IterativeParallelism;
+import info.kgeorgiy.ja.vikulaev.concurrent.ParallelMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Platform against virtual worker threads on CPU-bound ({@code expensive}) and I/O-bound ({@code blocking}) functions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"expensive", "blocking"})
+    public String workload;
+
+    /**
+     * Number of platform workers
+     */
+    private final int cores = Runtime.getRuntime().availableProcessors();
+    /**
+     * Number of virtual workers
+     */
+    private static final int VIRTUAL_CONCURRENCY = 10_000;
+
+    private List<Integer> args;
+    private Function<Integer, Integer> function;
+    private ParallelMapperImpl mapper;
+    private IterativeParallelism parallelism;
+    /**
+     * Chunks of iterative parallelism: one per core for platform threads, one per element for virtual ones,
+     * so blocked virtual threads don't leave the rest of their chunk waiting
+     */
+    private int chunks;
+
+    @Setup
+    public void setup() {
+        args = IntStream.range(0, size).boxed().toList();
+        IntUnaryOperator operator = Workloads.byName(workload);
+        function = operator::applyAsInt;
+        if (threads.equals("virtual")) {
+            mapper = ParallelMapperImpl.ofVirtual(VIRTUAL_CONCURRENCY);
+            parallelism = new IterativeParallelism(Thread.ofVirtual().factory());
+            chunks = size;
+        } else {
+            mapper = new ParallelMapperImpl(cores);
+            parallelism = new IterativeParallelism();
+            chunks = cores;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mapper.close();
+    }
+
+    @Benchmark
+    public List<Integer> map() throws InterruptedException {
+        return mapper.map(function, args);
+    }
+
+    @Benchmark
+    public int count() throws InterruptedException {
+        return parallelism.count(chunks, args, value -> function.apply(value) % 2 == 0);
+    }
+}
@@ -0,0 +1,56 @@
+package info.kgeorgiy.ja.vikulaev.concurrent.benchmark;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Functions of different cost which are shared by benchmarks.
+ */
+final class Workloads {
+    private Workloads() {
+    }
+
+    /**
+     * A few nanoseconds of arithmetic.
+     */
+    static int cheap(final int value) {
+        return value * 31 + 7;
+    }
+
+    /**
+     * About a microsecond of arithmetic.
+     */
+    static int expensive(final int value) {
+        int hash = value;
+        for (int i = 0; i < 1_000; i++) {
+            hash = hash * 31 + i;
+        }
+        return hash;
+    }
+
+    /**
+     * A millisecond of blocking.
+     */
+    static int blocking(final int value) {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+
+    /**
+     * Returns workload by its name.
+     *
+     * @param name one of {@code cheap}, {@code expensive} and {@code blocking}
+     * @return workload
+     */
+    static IntUnaryOperator byName(final String name) {
+        return switch (name) {
+            case "cheap" -> Workloads::cheap;
+            case "expensive" -> Workloads::expensive;
+            case "blocking" -> Workloads::blocking;
+            default -> throw new IllegalArgumentException("Unknown workload " + name);
+        };
+    }
+}
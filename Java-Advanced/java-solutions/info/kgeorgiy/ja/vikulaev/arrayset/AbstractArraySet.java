@@ -0,0 +1,225 @@
+package info.kgeorgiy.ja.vikulaev.arrayset;
+
+import java.util.*;
+
+/**
+ * Base of immutable sets which are views of range {@code [from, to)} of a sorted array.
+ * Navigation, range and descending views are implemented by binary search over that range,
+ * subclasses only store array and search in it.
+ *
+ * @param <E> type of elements
+ */
+abstract class AbstractArraySet<E> extends AbstractSet<E> implements NavigableSet<E> {
+    // Range [from, to) of array which belongs to this set
+    protected final int from;
+    protected final int to;
+    // Is this set a view of array in reverse order
+    protected final boolean descending;
+    // Arrays of at least this size are sorted by Arrays.parallelSort while the set is built
+    protected static final int PARALLEL_SORT_THRESHOLD = 1 << 16;
+    private static final String BORDER_MESSAGE_EXCEPTION = "Subset can't be extracted. " +
+            "From element has to be equal of bigger than to element by theirs comparator.";
+
+    protected AbstractArraySet(int from, int to, boolean descending) {
+        this.from = from;
+        this.to = to;
+        this.descending = descending;
+    }
+
+    /**
+     * Searches element in range {@code [from, to)} of array.
+     *
+     * @param elem element to search
+     * @return index of element or {@code -(insertion point) - 1}, same as {@link Arrays#binarySearch}
+     */
+    protected abstract int search(E elem);
+
+    /**
+     * Returns element of array by its index.
+     */
+    protected abstract E get(int index);
+
+    /**
+     * Returns view of range {@code [from, to)} of the same array.
+     */
+    protected abstract AbstractArraySet<E> view(int from, int to, boolean descending);
+
+    /**
+     * Returns comparator which array is sorted by, {@code null} for natural ordering.
+     */
+    protected abstract Comparator<? super E> order();
+
+    @Override
+    public abstract boolean contains(Object o);
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return descending ? Collections.reverseOrder(order()) : order();
+    }
+
+    private NavigableSet<E> subSetById(int fromElementId, int toElementId) {
+        if (isEmpty()) {
+            return this;
+        } else if (fromElementId >= toElementId) {
+            // In subset "If fromElement and toElement are equal, the returned set is empty".
+            return view(fromElementId, fromElementId, descending);
+        }
+
+        return view(fromElementId, toElementId, descending);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void borderValidation(E fromElement, E toElement) {
+        Comparator<? super E> comparator = comparator();
+        if (comparator == null && ((Comparable<? super E>) fromElement).compareTo(toElement) > 0) {
+            throw new IllegalArgumentException(BORDER_MESSAGE_EXCEPTION);
+        }
+        if (comparator != null && comparator.compare(fromElement, toElement) > 0) {
+            throw new IllegalArgumentException(BORDER_MESSAGE_EXCEPTION);
+        }
+    }
+
+    @Override
+    public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        borderValidation(fromElement, toElement);
+        return descending
+                ? subSetById(getHigherIndex(toElement, toInclusive), getLowerIndex(fromElement, fromInclusive) + 1)
+                : subSetById(getHigherIndex(fromElement, fromInclusive), getLowerIndex(toElement, toInclusive) + 1);
+    }
+
+    @Override
+    public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+        return descending
+                ? subSetById(getHigherIndex(toElement, inclusive), to)
+                : subSetById(from, getLowerIndex(toElement, inclusive) + 1);
+    }
+
+    @Override
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+        return descending
+                ? subSetById(from, getLowerIndex(fromElement, inclusive) + 1)
+                : subSetById(getHigherIndex(fromElement, inclusive), to);
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    @Override
+    public E lower(E e) {
+        return elementAt(descending ? getHigherIndex(e, false) : getLowerIndex(e, false));
+    }
+
+    @Override
+    public E floor(E e) {
+        return elementAt(descending ? getHigherIndex(e, true) : getLowerIndex(e, true));
+    }
+
+    @Override
+    public E ceiling(E e) {
+        return elementAt(descending ? getLowerIndex(e, true) : getHigherIndex(e, true));
+    }
+
+    @Override
+    public E higher(E e) {
+        return elementAt(descending ? getLowerIndex(e, false) : getHigherIndex(e, false));
+    }
+
+    @Override
+    public E pollFirst() {
+        throw new UnsupportedOperationException("ArraySet is immutable.");
+    }
+
+    @Override
+    public E pollLast() {
+        throw new UnsupportedOperationException("ArraySet is immutable.");
+    }
+
+    @Override
+    public NavigableSet<E> descendingSet() {
+        return view(from, to, !descending);
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return descendingSet().iterator();
+    }
+
+    @Override
+    public E first() {
+        assertNotEmpty();
+        return get(descending ? to - 1 : from);
+    }
+
+    @Override
+    public E last() {
+        assertNotEmpty();
+        return get(descending ? from : to - 1);
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int index = descending ? to - 1 : from;
+
+            @Override
+            public boolean hasNext() {
+                return from <= index && index < to;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("There are no more elements in this set.");
+                }
+                E element = get(index);
+                index += descending ? -1 : 1;
+                return element;
+            }
+        };
+    }
+
+    protected void assertNotEmpty() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("This set is empty. This function cannot be executed.");
+        }
+    }
+
+    // Number of elements which precede searched value in order of this set by result of search(value)
+    protected int rankOf(int searchRes) {
+        int index = (searchRes >= 0) ? searchRes : -(searchRes + 1);
+        return descending ? to - index - (searchRes >= 0 ? 1 : 0) : index - from;
+    }
+
+    private E elementAt(int index) {
+        return from <= index && index < to ? get(index) : null;
+    }
+
+    // Index of the greatest element which is less than (or equal to) elem in order of array, from - 1 if there is none
+    private int getLowerIndex(final E elem, boolean inclusive) {
+        int searchRes = search(elem);
+        return (searchRes >= 0) ? (inclusive ? searchRes : searchRes - 1) : -(searchRes + 1) - 1;
+    }
+
+    // Index of the least element which is greater than (or equal to) elem in order of array, to if there is none
+    private int getHigherIndex(final E elem, boolean inclusive) {
+        int searchRes = search(elem);
+        return (searchRes >= 0) ? (inclusive ? searchRes : searchRes + 1) : -(searchRes + 1);
+    }
+}
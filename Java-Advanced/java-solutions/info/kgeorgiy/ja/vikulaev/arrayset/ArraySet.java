@@ -3,18 +3,18 @@ package info.kgeorgiy.ja.vikulaev.arrayset;
 import java.util.*;
 
 
-public class ArraySet<T> extends AbstractSet<T> implements SortedSet<T> {
-    private final ArrayList<T> data;
+public class ArraySet<T> extends AbstractArraySet<T> {
+    // Sorted array which is shared by the set and all its range and descending views
+    private final T[] data;
+    // Comparator which data is sorted by
     private final Comparator<? super T> comparator;
-    private final String BORDER_MESSAGE_EXCEPTION = "Subset can't be extracted. " +
-            "From element has to be equal of bigger than to element by theirs comparator.";
 
     public ArraySet() {
         this(new ArrayList<>(), null);
     }
 
     public ArraySet(Collection<? extends T> collection) {
-        this(new ArrayList<>(new TreeSet<>(collection)), null);
+        this(collection, null);
     }
 
     public ArraySet(Comparator<? super T> comparator) {
@@ -22,99 +22,96 @@ public class ArraySet<T> extends AbstractSet<T> implements SortedSet<T> {
     }
 
     public ArraySet(Collection<? extends T> collection, Comparator<? super T> comparator) {
-        SortedSet<T> tmpSet = new TreeSet<>(comparator);
-        tmpSet.addAll(collection);
-        this.data = new ArrayList<>(tmpSet);
-        this.comparator = comparator;
+        this(sortedDistinct(collection, comparator), comparator);
     }
 
     public ArraySet(ArrayList<T> data, Comparator<? super T> comparator) {
-        this.data = data;
-        this.comparator = comparator;
+        this(toArray(data), 0, data.size(), comparator, false);
     }
 
     public ArraySet(ArraySet<T> set) {
-        this(set.data, set.comparator);
+        this(set.data, set.from, set.to, set.comparator, set.descending);
     }
 
-    @Override
-    public Comparator<? super T> comparator() {
-        return comparator;
+    private ArraySet(T[] data, Comparator<? super T> comparator) {
+        this(data, 0, data.length, comparator, false);
     }
 
-    private SortedSet<T> subSetById(int fromElementId, int toElementId) {
-        if (isEmpty()) {
-            return this;
-        } else if (fromElementId == toElementId) {
-            // In subset "If fromElement and toElement are equal, the returned set is empty".
-            return new ArraySet<>(comparator);
-        }
+    // View of range [from, to) of data, nothing is copied
+    private ArraySet(T[] data, int from, int to, Comparator<? super T> comparator, boolean descending) {
+        super(from, to, descending);
+        this.data = data;
+        this.comparator = comparator;
+    }
+
+    // Set of data which is already sorted by comparator and distinct, data is not copied
+    static <T> ArraySet<T> ofSorted(T[] data, Comparator<? super T> comparator) {
+        return new ArraySet<>(data, comparator);
+    }
 
-        return new ArraySet<>(data.subList(fromElementId, toElementId), comparator);
+    // Set of first size elements of data, which are already sorted by comparator and distinct, data is not copied
+    static <T> ArraySet<T> ofSorted(T[] data, int size, Comparator<? super T> comparator) {
+        return new ArraySet<>(data, 0, size, comparator, false);
     }
 
+    // Backing array, which may be shared with other sets
+    Object[] array() {
+        return data;
+    }
+
+    // Copies collection to array, sorts it and removes duplicates in place.
+    // Sorted set with the same comparator is already sorted and distinct, so it is only copied
     @SuppressWarnings("unchecked")
-    private void borderValidation(T fromElement, T toElement) {
-        if (comparator == null && ((Comparable) fromElement).compareTo(toElement) > 0) {
-            throw new IllegalArgumentException(BORDER_MESSAGE_EXCEPTION);
+    private static <T> T[] sortedDistinct(Collection<? extends T> collection, Comparator<? super T> comparator) {
+        T[] values = (T[]) collection.toArray();
+        if (collection instanceof SortedSet<?> set && Objects.equals(set.comparator(), comparator)) {
+            return values;
         }
-        if (comparator != null && comparator.compare(fromElement, toElement) > 0) {
-            throw new IllegalArgumentException(BORDER_MESSAGE_EXCEPTION);
+        if (values.length < PARALLEL_SORT_THRESHOLD) {
+            Arrays.sort(values, comparator);
+        } else {
+            Arrays.parallelSort(values, comparator);
         }
-    }
 
-    @Override
-    public SortedSet<T> subSet(T fromElement, T toElement) {
-        borderValidation(fromElement, toElement);
-        return subSetById(getIndex(fromElement), getIndex(toElement));
+        Comparator<? super T> order = comparator != null ? comparator : (Comparator<? super T>) Comparator.naturalOrder();
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            // Sort is stable, so the first of equal elements is kept, same as TreeSet does
+            if (i == 0 || order.compare(values[i], values[size - 1]) != 0) {
+                values[size++] = values[i];
+            }
+        }
+        return size == values.length ? values : Arrays.copyOf(values, size);
     }
 
-    @Override
-    public SortedSet<T> headSet(T toElement) {
-        return subSetById(0, getIndex(toElement));
+    @SuppressWarnings("unchecked")
+    private static <T> T[] toArray(Collection<T> collection) {
+        return (T[]) collection.toArray();
     }
 
     @Override
-    public SortedSet<T> tailSet(T fromElement) {
-        return subSetById(getIndex(fromElement), size());
+    protected int search(T elem) {
+        return Arrays.binarySearch(data, from, to, elem, comparator);
     }
 
     @Override
-    public T first() {
-        assertNotEmpty();
-        return data.get(0);
+    protected T get(int index) {
+        return data[index];
     }
 
     @Override
-    public T last() {
-        assertNotEmpty();
-        return data.get(size() - 1);
+    protected ArraySet<T> view(int from, int to, boolean descending) {
+        return new ArraySet<>(data, from, to, comparator, descending);
     }
 
     @Override
-    public int size() {
-        return data.size();
+    protected Comparator<? super T> order() {
+        return comparator;
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public boolean contains(Object o) {
-        return Collections.binarySearch(data, (T) Objects.requireNonNull(o), comparator) >= 0;
-    }
-
-    @Override
-    public Iterator<T> iterator() {
-        return Collections.unmodifiableList(data).iterator();
-    }
-
-    private void assertNotEmpty() {
-        if (isEmpty()) {
-            throw new NoSuchElementException("This set is empty. This function cannot be executed.");
-        }
-    }
-
-    private int getIndex(final T elem) {
-        int searchRes = Collections.binarySearch(data, elem, comparator);
-        return (searchRes >= 0) ? searchRes : -(searchRes + 1);
+        return search((T) Objects.requireNonNull(o)) >= 0;
     }
 }
@@ -0,0 +1,246 @@
+package info.kgeorgiy.ja.vikulaev.arrayset;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Set algebra of {@link ArraySet}s with the same comparator. Sets are merged in linear time.
+ * Once one set wins {@value #MIN_GALLOP} comparisons in a row, its run is skipped by galloping search,
+ * as in TimSort, so a small set is merged with a large one in {@code O(m log(n / m))} comparisons,
+ * while interleaved sets take one comparison per element.
+ * Large merges are split into independent parts by co-ranking and run in parallel.
+ * Parts write straight into the array of resulting {@link ArraySet}, which is built without intermediate trees.
+ */
+public final class ArraySets {
+    // Merges of at least this total size are split into parts
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    // Number of parts per processor, so parts of skewed sizes are balanced
+    private static final int PARTS_PER_PROCESSOR = 4;
+    // Number of consecutive wins of one set after which its run is galloped
+    private static final int MIN_GALLOP = 7;
+
+    /**
+     * Which elements get to result: only of the first set, only of the second set, of both sets
+     */
+    private enum Operation {
+        UNION(true, true, true),
+        INTERSECTION(false, false, true),
+        DIFFERENCE(true, false, false);
+
+        private final boolean onlyFirst, onlySecond, both;
+
+        Operation(boolean onlyFirst, boolean onlySecond, boolean both) {
+            this.onlyFirst = onlyFirst;
+            this.onlySecond = onlySecond;
+            this.both = both;
+        }
+
+        // Maximal size of result of merge of ranges of these sizes
+        int bound(int first, int second) {
+            return onlyFirst ? (onlySecond ? first + second : first) : Math.min(first, second);
+        }
+    }
+
+    private ArraySets() {
+    }
+
+    /**
+     * Returns set of elements which belong to any of sets. Of equal elements the one of the first set is kept.
+     *
+     * @param first  first set
+     * @param second second set
+     * @param <T>    type of elements
+     * @return union of sets
+     * @throws IllegalArgumentException if sets have different comparators
+     */
+    public static <T> ArraySet<T> union(ArraySet<T> first, ArraySet<T> second) {
+        return merge(first, second, Operation.UNION);
+    }
+
+    /**
+     * Returns set of elements of the first set which belong to the second set.
+     *
+     * @param first  first set
+     * @param second second set
+     * @param <T>    type of elements
+     * @return intersection of sets
+     * @throws IllegalArgumentException if sets have different comparators
+     */
+    public static <T> ArraySet<T> intersection(ArraySet<T> first, ArraySet<T> second) {
+        return merge(first, second, Operation.INTERSECTION);
+    }
+
+    /**
+     * Returns set of elements of the first set which don't belong to the second set.
+     *
+     * @param first  first set
+     * @param second second set
+     * @param <T>    type of elements
+     * @return difference of sets
+     * @throws IllegalArgumentException if sets have different comparators
+     */
+    public static <T> ArraySet<T> difference(ArraySet<T> first, ArraySet<T> second) {
+        return merge(first, second, Operation.DIFFERENCE);
+    }
+
+    /**
+     * Sorted elements of set by index in order of set, including descending views
+     */
+    private record Elements<T>(ArraySet<T> set, Comparator<? super T> order) {
+        T get(int index) {
+            return set.get(set.descending ? set.to - 1 - index : set.from + index);
+        }
+
+        int size() {
+            return set.size();
+        }
+
+        // Index of the least element in [from, to) which is equal or greater than key, to if there is none.
+        // Exponential search from the front, so it takes O(log d) comparisons, where d is the result - from
+        int gallop(int from, int to, T key) {
+            int low = from;
+            int high = from;
+            int step = 1;
+            while (high < to && order.compare(get(high), key) < 0) {
+                low = high + 1;
+                high = from + step;
+                step <<= 1;
+            }
+            high = Math.min(high, to);
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (order.compare(get(middle), key) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ArraySet<T> merge(ArraySet<T> first, ArraySet<T> second, Operation operation) {
+        Comparator<? super T> comparator = first.comparator();
+        Comparator<? super T> order = order(comparator);
+        // Descending view of reversed order is sorted by natural order comparator rather than null
+        if (!order.equals(order(second.comparator()))) {
+            throw new IllegalArgumentException("Sets can't be merged. They have to be sorted by the same comparator.");
+        }
+        Elements<T> a = new Elements<>(first, order);
+        Elements<T> b = new Elements<>(second, order);
+
+        int total = a.size() + b.size();
+        int parts = total < PARALLEL_THRESHOLD ? 1 : Runtime.getRuntime().availableProcessors() * PARTS_PER_PROCESSOR;
+        // Co-ranking: the larger set is split evenly, the other one at the same keys,
+        // so equal elements always get to the same part
+        boolean swap = a.size() < b.size();
+        Elements<T> split = swap ? b : a;
+        Elements<T> other = swap ? a : b;
+        int[] splitBounds = new int[parts + 1];
+        int[] otherBounds = new int[parts + 1];
+        for (int i = 1; i < parts; i++) {
+            splitBounds[i] = (int) ((long) split.size() * i / parts);
+            otherBounds[i] = splitBounds[i] < split.size()
+                    ? other.gallop(otherBounds[i - 1], other.size(), split.get(splitBounds[i]))
+                    : other.size();
+        }
+        splitBounds[parts] = split.size();
+        otherBounds[parts] = other.size();
+
+        int[] aBounds = swap ? otherBounds : splitBounds;
+        int[] bBounds = swap ? splitBounds : otherBounds;
+        // Each part writes to its own slot of the result, which is as large as its result may be
+        int[] offsets = new int[parts + 1];
+        for (int i = 0; i < parts; i++) {
+            offsets[i + 1] = Math.addExact(offsets[i],
+                    operation.bound(aBounds[i + 1] - aBounds[i], bBounds[i + 1] - bBounds[i]));
+        }
+        T[] data = (T[]) new Object[offsets[parts]];
+        IntStream indices = IntStream.range(0, parts);
+        int[] sizes = (parts > 1 ? indices.parallel() : indices)
+                .map(i -> merge(a, aBounds[i], aBounds[i + 1], b, bBounds[i], bBounds[i + 1], order, operation, data, offsets[i]))
+                .toArray();
+
+        // Slots are moved together, array is trimmed only if much of it is unused
+        int size = 0;
+        for (int i = 0; i < parts; i++) {
+            System.arraycopy(data, offsets[i], data, size, sizes[i]);
+            size += sizes[i];
+        }
+        if (data.length - size > size / 8) {
+            return ArraySet.ofSorted(Arrays.copyOf(data, size), comparator);
+        }
+        Arrays.fill(data, size, data.length, null);
+        return ArraySet.ofSorted(data, size, comparator);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Comparator<? super T> order(Comparator<? super T> comparator) {
+        return comparator != null ? comparator : (Comparator<? super T>) Comparator.naturalOrder();
+    }
+
+        // Merges ranges [aFrom, aTo) and [bFrom, bTo) to result from offset and returns number of written elements
+    private static <T> int merge(Elements<T> a, int aFrom, int aTo, Elements<T> b, int bFrom, int bTo,
+                                 Comparator<? super T> order, Operation operation, Object[] result, int offset) {
+        int size = offset;
+        int i = aFrom;
+        int j = bFrom;
+        // Number of consecutive wins of each set, galloping starts at MIN_GALLOP
+        int aWins = 0;
+        int bWins = 0;
+        while (i < aTo && j < bTo) {
+            int compared = order.compare(a.get(i), b.get(j));
+            if (compared < 0) {
+                bWins = 0;
+                int end = i + 1;
+                if (++aWins >= MIN_GALLOP) {
+                    end = a.gallop(end, aTo, b.get(j));
+                    if (end - i < MIN_GALLOP) {
+                        // Galloping didn't pay off, back to one comparison per element
+                        aWins = 0;
+                    }
+                }
+                if (operation.onlyFirst) {
+                    size = copy(a, i, end, result, size);
+                }
+                i = end;
+            } else if (compared > 0) {
+                aWins = 0;
+                int end = j + 1;
+                if (++bWins >= MIN_GALLOP) {
+                    end = b.gallop(end, bTo, a.get(i));
+                    if (end - j < MIN_GALLOP) {
+                        bWins = 0;
+                    }
+                }
+                if (operation.onlySecond) {
+                    size = copy(b, j, end, result, size);
+                }
+                j = end;
+            } else {
+                aWins = 0;
+                bWins = 0;
+                if (operation.both) {
+                    result[size++] = a.get(i);
+                }
+                i++;
+                j++;
+            }
+        }
+        if (operation.onlyFirst) {
+            size = copy(a, i, aTo, result, size);
+        }
+        if (operation.onlySecond) {
+            size = copy(b, j, bTo, result, size);
+        }
+        return size - offset;
+    }
+
+    private static <T> int copy(Elements<T> elements, int from, int to, Object[] result, int size) {
+        for (int i = from; i < to; i++) {
+            result[size++] = elements.get(i);
+        }
+        return size;
+    }
+}
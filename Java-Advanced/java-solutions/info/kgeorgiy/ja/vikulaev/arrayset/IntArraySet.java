@@ -0,0 +1,118 @@
+package info.kgeorgiy.ja.vikulaev.arrayset;
+
+import java.util.*;
+
+/**
+ * Sorted set of {@code int} values in natural order backed by {@code int[]}.
+ * It takes 4 bytes per element instead of reference and boxed {@link Integer} of {@link ArraySet},
+ * range and descending views share the array, {@link #contains(int)} and {@link #rank(int)} don't allocate.
+ */
+public class IntArraySet extends AbstractArraySet<Integer> {
+    // Sorted distinct values which are shared by the set and all its views
+    private final int[] data;
+
+    public IntArraySet() {
+        this(new int[0]);
+    }
+
+    public IntArraySet(Collection<Integer> collection) {
+        this(PrimitiveArrays.sortedDistinct(collection.stream().mapToInt(Integer::intValue).toArray(),
+                collection instanceof SortedSet<?> set && set.comparator() == null));
+    }
+
+    private IntArraySet(int[] data) {
+        this(data, 0, data.length, false);
+    }
+
+    // View of range [from, to) of data, nothing is copied
+    private IntArraySet(int[] data, int from, int to, boolean descending) {
+        super(from, to, descending);
+        this.data = data;
+    }
+
+    /**
+     * Creates set of values. Values are copied, so array may be changed afterwards.
+     *
+     * @param values values in any order, possibly repeated
+     * @return set of distinct values
+     */
+    public static IntArraySet of(int... values) {
+        return new IntArraySet(PrimitiveArrays.sortedDistinct(values.clone(), false));
+    }
+
+    /**
+     * Checks if this set contains value.
+     *
+     * @param value value to search
+     * @return true if value belongs to this set
+     */
+    public boolean contains(int value) {
+        return Arrays.binarySearch(data, from, to, value) >= 0;
+    }
+
+    /**
+     * Returns number of elements of this set which precede value in its order.
+     *
+     * @param value value to rank, it may not belong to this set
+     * @return number of preceding elements
+     */
+    public int rank(int value) {
+        return rankOf(Arrays.binarySearch(data, from, to, value));
+    }
+
+    /**
+     * Returns first element of this set without boxing.
+     *
+     * @return first element
+     * @throws NoSuchElementException if this set is empty
+     */
+    public int firstInt() {
+        assertNotEmpty();
+        return data[descending ? to - 1 : from];
+    }
+
+    /**
+     * Returns last element of this set without boxing.
+     *
+     * @return last element
+     * @throws NoSuchElementException if this set is empty
+     */
+    public int lastInt() {
+        assertNotEmpty();
+        return data[descending ? from : to - 1];
+    }
+
+    /**
+     * Returns elements of this set in its order.
+     *
+     * @return new array of elements
+     */
+    public int[] toIntArray() {
+        return PrimitiveArrays.copyOfRange(data, from, to, descending);
+    }
+
+    @Override
+    protected int search(Integer elem) {
+        return Arrays.binarySearch(data, from, to, elem);
+    }
+
+    @Override
+    protected Integer get(int index) {
+        return data[index];
+    }
+
+    @Override
+    protected IntArraySet view(int from, int to, boolean descending) {
+        return new IntArraySet(data, from, to, descending);
+    }
+
+    @Override
+    protected Comparator<? super Integer> order() {
+        return null;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return Objects.requireNonNull(o) instanceof Integer value && contains(value.intValue());
+    }
+}
@@ -0,0 +1,118 @@
+package info.kgeorgiy.ja.vikulaev.arrayset;
+
+import java.util.*;
+
+/**
+ * Sorted set of {@code long} values in natural order backed by {@code long[]}.
+ * It takes 8 bytes per element instead of reference and boxed {@link Long} of {@link ArraySet},
+ * range and descending views share the array, {@link #contains(long)} and {@link #rank(long)} don't allocate.
+ */
+public class LongArraySet extends AbstractArraySet<Long> {
+    // Sorted distinct values which are shared by the set and all its views
+    private final long[] data;
+
+    public LongArraySet() {
+        this(new long[0]);
+    }
+
+    public LongArraySet(Collection<Long> collection) {
+        this(PrimitiveArrays.sortedDistinct(collection.stream().mapToLong(Long::longValue).toArray(),
+                collection instanceof SortedSet<?> set && set.comparator() == null));
+    }
+
+    private LongArraySet(long[] data) {
+        this(data, 0, data.length, false);
+    }
+
+    // View of range [from, to) of data, nothing is copied
+    private LongArraySet(long[] data, int from, int to, boolean descending) {
+        super(from, to, descending);
+        this.data = data;
+    }
+
+    /**
+     * Creates set of values. Values are copied, so array may be changed afterwards.
+     *
+     * @param values values in any order, possibly repeated
+     * @return set of distinct values
+     */
+    public static LongArraySet of(long... values) {
+        return new LongArraySet(PrimitiveArrays.sortedDistinct(values.clone(), false));
+    }
+
+    /**
+     * Checks if this set contains value.
+     *
+     * @param value value to search
+     * @return true if value belongs to this set
+     */
+    public boolean contains(long value) {
+        return Arrays.binarySearch(data, from, to, value) >= 0;
+    }
+
+    /**
+     * Returns number of elements of this set which precede value in its order.
+     *
+     * @param value value to rank, it may not belong to this set
+     * @return number of preceding elements
+     */
+    public int rank(long value) {
+        return rankOf(Arrays.binarySearch(data, from, to, value));
+    }
+
+    /**
+     * Returns first element of this set without boxing.
+     *
+     * @return first element
+     * @throws NoSuchElementException if this set is empty
+     */
+    public long firstLong() {
+        assertNotEmpty();
+        return data[descending ? to - 1 : from];
+    }
+
+    /**
+     * Returns last element of this set without boxing.
+     *
+     * @return last element
+     * @throws NoSuchElementException if this set is empty
+     */
+    public long lastLong() {
+        assertNotEmpty();
+        return data[descending ? from : to - 1];
+    }
+
+    /**
+     * Returns elements of this set in its order.
+     *
+     * @return new array of elements
+     */
+    public long[] toLongArray() {
+        return PrimitiveArrays.copyOfRange(data, from, to, descending);
+    }
+
+    @Override
+    protected int search(Long elem) {
+        return Arrays.binarySearch(data, from, to, elem);
+    }
+
+    @Override
+    protected Long get(int index) {
+        return data[index];
+    }
+
+    @Override
+    protected LongArraySet view(int from, int to, boolean descending) {
+        return new LongArraySet(data, from, to, descending);
+    }
+
+    @Override
+    protected Comparator<? super Long> order() {
+        return null;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return Objects.requireNonNull(o) instanceof Long value && contains(value.longValue());
+    }
+}
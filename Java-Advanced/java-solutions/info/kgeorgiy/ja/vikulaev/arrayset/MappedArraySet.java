@@ -0,0 +1,428 @@
+package info.kgeorgiy.ja.vikulaev.arrayset;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Immutable sorted set which is queried in place in memory-mapped file, so opening it only checks layout of file
+ * and keys take no heap until they are returned. Files are created by {@link Writer} from sorted keys.
+ * Searches by natural ordering compare keys in file by {@link Codec#compareNatural} without decoding them.
+ * <p>
+ * File consists of header, keys and, for keys of variable width, index:
+ * <ul>
+ *     <li>header: magic, format version, key width (0 for variable), number of keys, offset of index, reserved int;</li>
+ *     <li>keys of fixed width one after another, or each key prefixed by its length in bytes;</li>
+ *     <li>index: offset of each key of variable width.</li>
+ * </ul>
+ * All ints are big-endian. File is mapped by {@link MappedByteBuffer}, so it is limited by 2GB.
+ *
+ * @param <T> type of elements
+ */
+public class MappedArraySet<T> extends AbstractArraySet<T> {
+    private static final int MAGIC = 0x41534554;
+    private static final int FORMAT_VERSION = 1;
+    // Header is 6 ints, so keys of width 8 are aligned
+    private static final int HEADER_BYTES = 24;
+
+    /**
+     * Binary format of keys
+     *
+     * @param <T> type of keys
+     */
+    public interface Codec<T> {
+        /**
+         * Returns width of each key in bytes.
+         *
+         * @return width of keys or 0 if keys have different widths
+         */
+        int width();
+
+        /**
+         * Returns bytes of key. It must be exactly {@link #width()} bytes long if width is fixed.
+         */
+        byte[] encode(T key);
+
+        /**
+         * Reads key without changing position of buffer.
+         *
+         * @param buffer buffer of the whole file
+         * @param offset offset of key in buffer
+         * @param length width of key in bytes
+         * @return key
+         */
+        T decode(ByteBuffer buffer, int offset, int length);
+
+        /**
+         * Compares key in buffer with given key by natural ordering of keys. Codecs may override it
+         * to compare without decoding, default implementation decodes key in buffer.
+         *
+         * @param buffer buffer of the whole file
+         * @param offset offset of key in buffer
+         * @param length width of key in bytes
+         * @param key    key to compare with
+         * @return negative, zero or positive if key in buffer is less than, equal to or greater than given key
+         */
+        @SuppressWarnings("unchecked")
+        default int compareNatural(ByteBuffer buffer, int offset, int length, T key) {
+            return ((Comparable<? super T>) decode(buffer, offset, length)).compareTo(key);
+        }
+    }
+
+    /**
+     * {@code long} keys of 8 bytes
+     */
+    public static final Codec<Long> LONGS = new Codec<>() {
+        @Override
+        public int width() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public byte[] encode(Long key) {
+            return ByteBuffer.allocate(Long.BYTES).putLong(key).array();
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer, int offset, int length) {
+            return buffer.getLong(offset);
+        }
+
+        @Override
+        public int compareNatural(ByteBuffer buffer, int offset, int length, Long key) {
+            return Long.compare(buffer.getLong(offset), key);
+        }
+    };
+
+    /**
+     * Strings of any length in UTF-8
+     */
+    public static final Codec<String> STRINGS = new Codec<>() {
+        @Override
+        public int width() {
+            return 0;
+        }
+
+        @Override
+        public byte[] encode(String key) {
+            return key.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decode(ByteBuffer buffer, int offset, int length) {
+            byte[] bytes = new byte[length];
+            buffer.get(offset, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Decodes UTF-8 char by char while comparing, so result is the same as of {@link String#compareTo},
+         * which compares UTF-16 chars rather than code points, as bytes of UTF-8 do.
+         */
+        @Override
+        public int compareNatural(ByteBuffer buffer, int offset, int length, String key) {
+            int end = offset + length;
+            int i = offset;
+            int k = 0;
+            while (i < end) {
+                int first = buffer.get(i) & 0xFF;
+                int size = first < 0x80 ? 1 : first < 0xE0 ? 2 : first < 0xF0 ? 3 : 4;
+                int codePoint;
+                if (i + size > end) {
+                    // Truncated sequence, Writer never writes it
+                    codePoint = 0xFFFD;
+                    size = end - i;
+                } else {
+                    codePoint = size == 1 ? first : first & (0xFF >> (size + 1));
+                    for (int j = 1; j < size; j++) {
+                        codePoint = codePoint << 6 | buffer.get(i + j) & 0x3F;
+                    }
+                }
+                i += size;
+                if (Character.isBmpCodePoint(codePoint)) {
+                    if (k == key.length()) {
+                        return 1;
+                    }
+                    int compared = Character.compare((char) codePoint, key.charAt(k++));
+                    if (compared != 0) {
+                        return compared;
+                    }
+                } else {
+                    for (char c : Character.toChars(codePoint)) {
+                        if (k == key.length()) {
+                            return 1;
+                        }
+                        int compared = Character.compare(c, key.charAt(k++));
+                        if (compared != 0) {
+                            return compared;
+                        }
+                    }
+                }
+            }
+            return k == key.length() ? 0 : -1;
+        }
+    };
+
+    // Whole file, only absolute reads are used, so it is shared by threads and views
+    private final ByteBuffer buffer;
+    private final Codec<T> codec;
+    private final Comparator<? super T> comparator;
+    // Same as comparator, but natural ordering instead of null
+    private final Comparator<? super T> order;
+    private final int width;
+    private final int indexOffset;
+
+    @SuppressWarnings("unchecked")
+    private MappedArraySet(ByteBuffer buffer, Codec<T> codec, Comparator<? super T> comparator,
+                           int width, int indexOffset, int from, int to, boolean descending) {
+        super(from, to, descending);
+        this.buffer = buffer;
+        this.codec = codec;
+        this.comparator = comparator;
+        this.order = comparator != null ? comparator : (Comparator<? super T>) Comparator.naturalOrder();
+        this.width = width;
+        this.indexOffset = indexOffset;
+    }
+
+    /**
+     * Maps file which was created by {@link Writer}. File is unmapped when the set and all its views are collected.
+     *
+     * @param path       file of the set
+     * @param codec      format of keys which file was written with
+     * @param comparator comparator which keys were sorted by, {@code null} for natural ordering
+     * @param <T>        type of keys
+     * @return set of keys in file
+     * @throws IOException if file can't be read, it isn't a set of keys of such format or it is truncated
+     */
+    public static <T> MappedArraySet<T> open(Path path, Codec<T> codec, Comparator<? super T> comparator) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(String.format("File %s is larger than 2GB.", path));
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException(String.format("File %s is not a set file.", path));
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException(String.format("Version %d of set file %s is not supported.", buffer.getInt(4), path));
+        }
+        int width = buffer.getInt(8);
+        if (width != codec.width()) {
+            throw new IOException(String.format("Keys of set file %s are %d bytes wide, but %d bytes were expected.",
+                    path, width, codec.width()));
+        }
+        int count = buffer.getInt(12);
+        int indexOffset = buffer.getInt(16);
+        boolean fits = width > 0
+                ? HEADER_BYTES + (long) count * width <= buffer.capacity()
+                : indexOffset >= HEADER_BYTES && indexOffset + (long) count * Integer.BYTES <= buffer.capacity();
+        if (count < 0 || !fits) {
+            throw new IOException(String.format("Set file %s is truncated or corrupted: %d keys don't fit in %d bytes.",
+                    path, count, buffer.capacity()));
+        }
+        if (width == 0) {
+            // Keys of variable width follow each other between header and index
+            long end = HEADER_BYTES;
+            for (int i = 0; i < count; i++) {
+                int offset = buffer.getInt(indexOffset + i * Integer.BYTES);
+                int length = offset >= end && offset <= indexOffset - Integer.BYTES ? buffer.getInt(offset) : -1;
+                if (length < 0 || offset + Integer.BYTES + (long) length > indexOffset) {
+                    throw new IOException(String.format("Set file %s is corrupted: key %d at offset %d is out of keys.",
+                            path, i, offset));
+                }
+                end = offset + Integer.BYTES + (long) length;
+            }
+        }
+        return new MappedArraySet<>(buffer, codec, comparator, width, indexOffset, 0, count, false);
+    }
+
+    /**
+     * Creates writer of set file.
+     *
+     * @param path       file to write, it is replaced if exists
+     * @param codec      format of keys
+     * @param comparator comparator which keys are sorted by, {@code null} for natural ordering
+     * @param <T>        type of keys
+     * @return writer which accepts keys in increasing order
+     * @throws IOException if file can't be created
+     */
+    public static <T> Writer<T> writer(Path path, Codec<T> codec, Comparator<? super T> comparator) throws IOException {
+        return new Writer<>(path, codec, comparator);
+    }
+
+    /**
+     * Streaming writer of set file. Keys are written as soon as they are added,
+     * so the whole set is never kept in memory.
+     *
+     * @param <T> type of keys
+     */
+    public static final class Writer<T> implements Closeable {
+        private final Codec<T> codec;
+        private final Comparator<? super T> order;
+        private final FileChannel channel;
+        private final DataOutputStream keys;
+        // Offsets of keys of variable width, they are appended after keys on close
+        private final Path indexPath;
+        private final DataOutputStream index;
+        private long position = HEADER_BYTES;
+        private int count;
+        private T last;
+
+        @SuppressWarnings("unchecked")
+        private Writer(Path path, Codec<T> codec, Comparator<? super T> comparator) throws IOException {
+            this.codec = codec;
+            this.order = comparator != null ? comparator : (Comparator<? super T>) Comparator.naturalOrder();
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            Path indexPath = null;
+            try {
+                channel.position(HEADER_BYTES);
+                DataOutputStream index = null;
+                if (codec.width() == 0) {
+                    Path directory = path.toAbsolutePath().getParent();
+                    indexPath = Files.createTempFile(directory, path.getFileName().toString(), ".index");
+                    index = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPath)));
+                }
+                this.channel = channel;
+                this.keys = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+                this.indexPath = indexPath;
+                this.index = index;
+            } catch (IOException | RuntimeException e) {
+                // Nobody else can close what was opened
+                try {
+                    channel.close();
+                    if (indexPath != null) {
+                        Files.deleteIfExists(indexPath);
+                    }
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * Writes key.
+         *
+         * @param key key which is greater than all previous keys
+         * @throws IOException if it's unable to write key
+         */
+        public void add(T key) throws IOException {
+            Objects.requireNonNull(key);
+            if (count > 0 && order.compare(last, key) >= 0) {
+                throw new IllegalArgumentException(String.format(
+                        "Keys have to be added in increasing order. %s was added after %s.", key, last));
+            }
+            byte[] bytes = codec.encode(key);
+            if (index != null) {
+                index.writeInt(Math.toIntExact(position));
+                keys.writeInt(bytes.length);
+                position += Integer.BYTES;
+            } else if (bytes.length != codec.width()) {
+                throw new IllegalArgumentException(String.format(
+                        "Key %s is %d bytes wide, but %d bytes were expected.", key, bytes.length, codec.width()));
+            }
+            keys.write(bytes);
+            position += bytes.length;
+            if (position > Integer.MAX_VALUE) {
+                throw new IOException("Set file is larger than 2GB.");
+            }
+            count++;
+            last = key;
+        }
+
+        /**
+         * Appends index and writes header. File can't be opened before this.
+         *
+         * @throws IOException if it's unable to write file
+         */
+        @Override
+        public void close() throws IOException {
+            try (channel; keys) {
+                int indexOffset = 0;
+                if (index != null) {
+                    index.close();
+                    indexOffset = Math.toIntExact(position);
+                    Files.copy(indexPath, keys);
+                }
+                keys.flush();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                        .putInt(MAGIC).putInt(FORMAT_VERSION).putInt(codec.width())
+                        .putInt(count).putInt(indexOffset).putInt(0)
+                        .flip();
+                channel.write(header, 0);
+            } finally {
+                if (indexPath != null) {
+                    Files.deleteIfExists(indexPath);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected int search(T elem) {
+        int low = from;
+        int high = to - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compared = comparator == null ? compareNatural(middle, elem) : order.compare(get(middle), elem);
+            if (compared < 0) {
+                low = middle + 1;
+            } else if (compared > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    protected T get(int index) {
+        int offset = offset(index);
+        return codec.decode(buffer, offset, length(offset));
+    }
+
+    private int compareNatural(int index, T key) {
+        int offset = offset(index);
+        return codec.compareNatural(buffer, offset, length(offset), key);
+    }
+
+    // Offset of bytes of key, after its length for keys of variable width
+    private int offset(int index) {
+        return width > 0
+                ? HEADER_BYTES + index * width
+                : buffer.getInt(indexOffset + index * Integer.BYTES) + Integer.BYTES;
+    }
+
+    // Length of key which bytes start at offset
+    private int length(int offset) {
+        return width > 0 ? width : buffer.getInt(offset - Integer.BYTES);
+    }
+
+    @Override
+    protected MappedArraySet<T> view(int from, int to, boolean descending) {
+        return new MappedArraySet<>(buffer, codec, comparator, width, indexOffset, from, to, descending);
+    }
+
+    @Override
+    protected Comparator<? super T> order() {
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean contains(Object o) {
+        return search((T) Objects.requireNonNull(o)) >= 0;
+    }
+}
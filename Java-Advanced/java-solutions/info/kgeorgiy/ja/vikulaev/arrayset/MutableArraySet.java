@@ -0,0 +1,246 @@
+package info.kgeorgiy.ja.vikulaev.arrayset;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Mutable sorted set which is write-optimized companion of {@link ArraySet}.
+ * Updates are buffered in small sorted deltas of inserted and deleted elements, which are merged
+ * into main array in one linear pass when they grow to about square root of its size,
+ * so rebuild cost is amortized over many updates. Each merge publishes immutable {@link ArraySet},
+ * which is returned by {@link #snapshot()}. Navigation is done on snapshots, this set only iterates in order.
+ * <p>
+ * Writers are serialized by the monitor of the set. Readers, including {@link #snapshot()}, never block:
+ * they read the current state, which is immutable and replaced by writers as a whole.
+ *
+ * @param <T> type of elements
+ */
+public class MutableArraySet<T> extends AbstractSet<T> {
+    // Delta is merged when it is at least this size, even if set is small
+    private static final int MIN_DELTA = 64;
+
+    /**
+     * Immutable state of the set: elements of base which are not deleted and inserted elements.
+     * Inserted elements don't belong to base, deleted elements belong to it.
+     */
+    private record State<T>(ArraySet<T> base, ArraySet<T> inserted, ArraySet<T> deleted) {
+        int size() {
+            return base.size() + inserted.size() - deleted.size();
+        }
+
+        int delta() {
+            return inserted.size() + deleted.size();
+        }
+    }
+
+    private final Comparator<? super T> comparator;
+    // Same as comparator, but natural ordering instead of null
+    private final Comparator<? super T> order;
+    private final AtomicReference<State<T>> state;
+
+    public MutableArraySet() {
+        this(Collections.emptyList(), null);
+    }
+
+    public MutableArraySet(Comparator<? super T> comparator) {
+        this(Collections.emptyList(), comparator);
+    }
+
+    public MutableArraySet(Collection<? extends T> collection) {
+        this(collection, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public MutableArraySet(Collection<? extends T> collection, Comparator<? super T> comparator) {
+        this.comparator = comparator;
+        this.order = comparator != null ? comparator : (Comparator<? super T>) Comparator.naturalOrder();
+        ArraySet<T> empty = new ArraySet<>(comparator);
+        this.state = new AtomicReference<>(new State<>(new ArraySet<>(collection, comparator), empty, empty));
+    }
+
+    /**
+     * Returns immutable set of current elements. Pending updates are merged by the caller without the monitor
+     * of writers. Merged state is published unless a writer has replaced the state meanwhile,
+     * so next snapshots are free until the next update.
+     *
+     * @return snapshot of this set
+     */
+    public ArraySet<T> snapshot() {
+        State<T> current = state.get();
+        if (current.delta() == 0) {
+            return current.base();
+        }
+        State<T> merged = merge(current);
+        // Merged state has the same elements, so a writer which has read the current state may still replace it
+        state.compareAndSet(current, merged);
+        return merged.base();
+    }
+
+    @Override
+    public synchronized boolean add(T t) {
+        Objects.requireNonNull(t);
+        State<T> current = state.get();
+        if (current.deleted().contains(t)) {
+            update(new State<>(current.base(), current.inserted(), without(current.deleted(), t)));
+        } else if (!current.base().contains(t) && !current.inserted().contains(t)) {
+            update(new State<>(current.base(), with(current.inserted(), t), current.deleted()));
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public synchronized boolean remove(Object o) {
+        T t = (T) Objects.requireNonNull(o);
+        State<T> current = state.get();
+        if (current.inserted().contains(t)) {
+            update(new State<>(current.base(), without(current.inserted(), t), current.deleted()));
+        } else if (current.base().contains(t) && !current.deleted().contains(t)) {
+            update(new State<>(current.base(), current.inserted(), with(current.deleted(), t)));
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        ArraySet<T> empty = new ArraySet<>(comparator);
+        state.set(new State<>(empty, empty, empty));
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        State<T> current = state.get();
+        return current.inserted().contains(o) || current.base().contains(o) && !current.deleted().contains(o);
+    }
+
+    @Override
+    public int size() {
+        return state.get().size();
+    }
+
+    /**
+     * Returns iterator of elements in order of the set at the moment of the call. Later updates
+     * are not seen by it. {@link Iterator#remove()} removes the last returned element from this set.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        State<T> current = state.get();
+        Iterator<T> iterator = merged(current.base().iterator(), current.inserted().iterator(), current.deleted(), order);
+        return new Iterator<>() {
+            private T last;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return last = iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException("Element can't be removed. next() has to be called first.");
+                }
+                MutableArraySet.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    // Publishes new state and merges it if delta is big enough
+    private void update(State<T> updated) {
+        state.set(updated);
+        if (updated.delta() >= Math.max(MIN_DELTA, (int) Math.sqrt(updated.base().size()))) {
+            state.set(merge(updated));
+        }
+    }
+
+    // Merges delta of state into base in one pass
+    @SuppressWarnings("unchecked")
+    private State<T> merge(State<T> current) {
+        T[] data = (T[]) new Object[current.size()];
+        Iterator<T> iterator = merged(current.base().iterator(), current.inserted().iterator(), current.deleted(), order);
+        for (int i = 0; i < data.length; i++) {
+            data[i] = iterator.next();
+        }
+        ArraySet<T> empty = new ArraySet<>(comparator);
+        return new State<>(ArraySet.ofSorted(data, comparator), empty, empty);
+    }
+
+    // Returns new small set which is set with element inserted
+    @SuppressWarnings("unchecked")
+    private ArraySet<T> with(ArraySet<T> set, T element) {
+        T[] data = (T[]) new Object[set.size() + 1];
+        int index = -set.search(element) - 1;
+        int i = 0;
+        for (T value : set) {
+            if (i == index) {
+                data[i++] = element;
+            }
+            data[i++] = value;
+        }
+        if (i == index) {
+            data[i] = element;
+        }
+        return ArraySet.ofSorted(data, comparator);
+    }
+
+    // Returns new small set which is set with element removed
+    @SuppressWarnings("unchecked")
+    private ArraySet<T> without(ArraySet<T> set, T element) {
+        T[] data = (T[]) new Object[set.size() - 1];
+        int i = 0;
+        for (T value : set) {
+            if (order.compare(value, element) != 0) {
+                data[i++] = value;
+            }
+        }
+        return ArraySet.ofSorted(data, comparator);
+    }
+
+    // Iterator of elements of base which are not deleted merged with inserted elements, both are sorted by order
+    private static <T> Iterator<T> merged(Iterator<T> base, Iterator<T> inserted, Set<T> deleted, Comparator<? super T> order) {
+        return new Iterator<>() {
+            private T nextBase = advance(base);
+            private T nextInserted = inserted.hasNext() ? inserted.next() : null;
+
+            private T advance(Iterator<T> iterator) {
+                while (iterator.hasNext()) {
+                    T value = iterator.next();
+                    if (!deleted.contains(value)) {
+                        return value;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return nextBase != null || nextInserted != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("There are no more elements in this set.");
+                }
+                T result;
+                if (nextInserted == null || nextBase != null && order.compare(nextBase, nextInserted) < 0) {
+                    result = nextBase;
+                    nextBase = advance(base);
+                } else {
+                    result = nextInserted;
+                    nextInserted = inserted.hasNext() ? inserted.next() : null;
+                }
+                return result;
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package info.kgeorgiy.ja.vikulaev.arrayset;
+
+import java.util.Arrays;
+
+/**
+ * Building blocks of sets of primitive values, {@link IntArraySet}, {@link BlockedIntArraySet}
+ * and {@link LongArraySet}. Methods are overloaded for each type of values rather than generic,
+ * so values are never boxed.
+ */
+final class PrimitiveArrays {
+    private PrimitiveArrays() {
+    }
+
+    // Sorts values unless they are already sorted and removes duplicates in place
+    static int[] sortedDistinct(int[] values, boolean sorted) {
+        if (sorted) {
+            return values;
+        } else if (values.length < AbstractArraySet.PARALLEL_SORT_THRESHOLD) {
+            Arrays.sort(values);
+        } else {
+            Arrays.parallelSort(values);
+        }
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (i == 0 || values[i] != values[size - 1]) {
+                values[size++] = values[i];
+            }
+        }
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    // Same as sortedDistinct(int[], boolean) for long values
+    static long[] sortedDistinct(long[] values, boolean sorted) {
+        if (sorted) {
+            return values;
+        } else if (values.length < AbstractArraySet.PARALLEL_SORT_THRESHOLD) {
+            Arrays.sort(values);
+        } else {
+            Arrays.parallelSort(values);
+        }
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (i == 0 || values[i] != values[size - 1]) {
+                values[size++] = values[i];
+            }
+        }
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    // Copy of range [from, to) of data, reversed for descending views
+    static int[] copyOfRange(int[] data, int from, int to, boolean descending) {
+        int[] result = Arrays.copyOfRange(data, from, to);
+        if (descending) {
+            for (int i = 0, j = result.length - 1; i < j; i++, j--) {
+                int tmp = result[i];
+                result[i] = result[j];
+                result[j] = tmp;
+            }
+        }
+        return result;
+    }
+
+    // Same as copyOfRange(int[], int, int, boolean) for long values
+    static long[] copyOfRange(long[] data, int from, int to, boolean descending) {
+        long[] result = Arrays.copyOfRange(data, from, to);
+        if (descending) {
+            for (int i = 0, j = result.length - 1; i < j; i++, j--) {
+                long tmp = result[i];
+                result[i] = result[j];
+                result[j] = tmp;
+            }
+        }
+        return result;
+    }
+}
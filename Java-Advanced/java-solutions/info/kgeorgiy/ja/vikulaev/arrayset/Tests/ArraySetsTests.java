@@ -0,0 +1,129 @@
+package info.kgeorgiy.ja.vikulaev.arrayset.Tests;
+
+import info.kgeorgiy.ja.vikulaev.arrayset.ArraySet;
+import info.kgeorgiy.ja.vikulaev.arrayset.ArraySets;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.BinaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArraySetsTests {
+
+    public static final int SMALL = 1000;
+    // Large enough to be merged in parallel parts
+    public static final int LARGE = 1 << 18;
+
+    @Test
+    public void test_0_natural() {
+        Random random = new Random(3141);
+        checkAll(random(random, SMALL, null), random(random, SMALL, null));
+        checkAll(random(random, SMALL, null), new ArraySet<>());
+        checkAll(new ArraySet<>(), random(random, SMALL, null));
+    }
+
+    @Test
+    public void test_1_reversed() {
+        Random random = new Random(2718);
+        checkAll(random(random, SMALL, Comparator.reverseOrder()), random(random, SMALL, Comparator.reverseOrder()));
+    }
+
+    @Test
+    public void test_2_descending() {
+        Random random = new Random(1618);
+        ArraySet<Integer> first = descending(random(random, SMALL, null));
+        ArraySet<Integer> second = descending(random(random, SMALL, null));
+        checkAll(first, second);
+        // Descending view of natural order and reversed order are sorted by the same comparator
+        checkAll(first, random(random, SMALL, Comparator.reverseOrder()));
+        checkAll(descending(random(random, SMALL, Comparator.reverseOrder())), random(random, SMALL, null));
+    }
+
+    @Test
+    public void test_3_subSets() {
+        Random random = new Random(1414);
+        ArraySet<Integer> first = random(random, SMALL, null);
+        ArraySet<Integer> second = random(random, SMALL, null);
+        checkAll(sub(first, SMALL / 4, SMALL), sub(second, 0, SMALL * 3 / 4));
+        checkAll(sub(first, 0, SMALL / 2), sub(second, SMALL, SMALL * 2));
+        checkAll(descending(sub(first, SMALL / 4, SMALL)), descending(sub(second, SMALL / 2, SMALL * 3 / 2)));
+        checkAll(sub(descending(first), SMALL / 4, SMALL), descending(second));
+    }
+
+    @Test
+    public void test_4_large() {
+        Random random = new Random(1732);
+        ArraySet<Integer> first = random(random, LARGE, null);
+        ArraySet<Integer> second = random(random, LARGE, null);
+        checkAll(first, second);
+        checkAll(descending(first), descending(sub(second, LARGE / 8, LARGE)));
+        checkAll(first, sub(second, LARGE / 2, LARGE / 2 + 100));
+    }
+
+    @Test
+    public void test_5_differentComparators() {
+        ArraySet<Integer> natural = new ArraySet<>(List.of(1, 2, 3));
+        ArraySet<Integer> reversed = new ArraySet<>(List.of(1, 2, 3), Comparator.reverseOrder());
+        assertThrows(IllegalArgumentException.class, () -> ArraySets.union(natural, reversed));
+        assertThrows(IllegalArgumentException.class, () -> ArraySets.intersection(descending(natural), natural));
+    }
+
+    private static void checkAll(ArraySet<Integer> first, ArraySet<Integer> second) {
+        check(first, second, ArraySets::union, (a, b) -> {
+            a.addAll(b);
+            return a;
+        });
+        check(first, second, ArraySets::intersection, (a, b) -> {
+            a.retainAll(b);
+            return a;
+        });
+        check(first, second, ArraySets::difference, (a, b) -> {
+            a.removeAll(b);
+            return a;
+        });
+    }
+
+    private static void check(ArraySet<Integer> first, ArraySet<Integer> second,
+                              BinaryOperator<ArraySet<Integer>> operation,
+                              BinaryOperator<TreeSet<Integer>> oracle) {
+        ArraySet<Integer> result = operation.apply(first, second);
+        TreeSet<Integer> expected = oracle.apply(copy(first), copy(second));
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(result));
+        assertEquals(first.comparator(), result.comparator());
+        assertEquals(expected.size(), result.size());
+        if (!expected.isEmpty()) {
+            assertEquals(expected.first(), result.first());
+            assertEquals(expected.last(), result.last());
+            Integer middle = new ArrayList<>(expected).get(expected.size() / 2);
+            assertEquals(expected.headSet(middle), result.headSet(middle));
+            assertEquals(expected.ceiling(middle), result.ceiling(middle));
+        }
+    }
+
+    private static ArraySet<Integer> random(Random random, int size, Comparator<Integer> comparator) {
+        return new ArraySet<>(random.ints(size, 0, size * 2).boxed().toList(), comparator);
+    }
+
+    private static TreeSet<Integer> copy(ArraySet<Integer> set) {
+        TreeSet<Integer> copy = new TreeSet<>(set.comparator());
+        copy.addAll(set);
+        return copy;
+    }
+
+    private static ArraySet<Integer> descending(NavigableSet<Integer> set) {
+        return (ArraySet<Integer>) set.descendingSet();
+    }
+
+    private static ArraySet<Integer> sub(NavigableSet<Integer> set, int from, int to) {
+        Comparator<? super Integer> comparator = set.comparator();
+        boolean reversed = comparator != null && comparator.compare(from, to) > 0;
+        return (ArraySet<Integer>) (reversed ? set.subSet(to, true, from, false) : set.subSet(from, true, to, false));
+    }
+}
@@ -0,0 +1,103 @@
+package info.kgeorgiy.ja.vikulaev.arrayset.Tests;
+
+import info.kgeorgiy.ja.vikulaev.arrayset.ArraySet;
+import info.kgeorgiy.ja.vikulaev.arrayset.MutableArraySet;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MutableArraySetTests {
+
+    public static final int OPERATIONS = 20_000;
+    public static final int KEYS = 1000;
+
+    @Test
+    public void test_0_naturalOrder() {
+        checkRandom(null, 3141);
+    }
+
+    @Test
+    public void test_1_comparator() {
+        checkRandom(Comparator.<Integer>reverseOrder(), 2718);
+    }
+
+    @Test
+    public void test_2_initialElements() {
+        List<Integer> initial = new Random(42).ints(KEYS, 0, KEYS).boxed().toList();
+        MutableArraySet<Integer> set = new MutableArraySet<>(initial, Comparator.reverseOrder());
+        TreeSet<Integer> oracle = new TreeSet<>(Comparator.reverseOrder());
+        oracle.addAll(initial);
+        assertEqualSets(oracle, set);
+        set.removeIf(x -> x % 3 == 0);
+        oracle.removeIf(x -> x % 3 == 0);
+        assertEqualSets(oracle, set);
+    }
+
+    @Test
+    public void test_3_iteratorRemove() {
+        MutableArraySet<Integer> set = new MutableArraySet<>(List.of(1, 2, 3));
+        Iterator<Integer> iterator = set.iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        assertEquals(1, iterator.next());
+        iterator.remove();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        assertEquals(2, iterator.next());
+        assertEquals(3, iterator.next());
+        assertThrows(NoSuchElementException.class, iterator::next);
+        assertEquals(List.of(2, 3), new ArrayList<>(set));
+    }
+
+    @Test
+    public void test_4_snapshotIsImmutable() {
+        MutableArraySet<Integer> set = new MutableArraySet<>(List.of(1, 2, 3));
+        set.add(4);
+        ArraySet<Integer> snapshot = set.snapshot();
+        set.remove(1);
+        set.add(5);
+        assertEquals(List.of(1, 2, 3, 4), new ArrayList<>(snapshot));
+        assertEquals(List.of(2, 3, 4, 5), new ArrayList<>(set.snapshot()));
+    }
+
+    private static void checkRandom(Comparator<Integer> comparator, long seed) {
+        Random random = new Random(seed);
+        MutableArraySet<Integer> set = new MutableArraySet<>(comparator);
+        TreeSet<Integer> oracle = new TreeSet<>(comparator);
+        for (int i = 0; i < OPERATIONS; i++) {
+            Integer key = random.nextInt(KEYS);
+            switch (random.nextInt(8)) {
+                case 0, 1, 2 -> assertEquals(oracle.add(key), set.add(key), "add " + key);
+                case 3, 4 -> assertEquals(oracle.remove(key), set.remove(key), "remove " + key);
+                case 5 -> assertEquals(oracle.contains(key), set.contains(key), "contains " + key);
+                case 6 -> {
+                    // Removes every element of a random residue by iterator of both sets
+                    int modulo = 2 + random.nextInt(50);
+                    for (Iterator<Integer> iterator = set.iterator(); iterator.hasNext(); ) {
+                        if (iterator.next() % modulo == key % modulo) {
+                            iterator.remove();
+                        }
+                    }
+                    oracle.removeIf(x -> x % modulo == key % modulo);
+                }
+                default -> assertEquals(new ArrayList<>(oracle), new ArrayList<>(set.snapshot()), "snapshot");
+            }
+            assertEquals(oracle.size(), set.size());
+        }
+        assertEqualSets(oracle, set);
+    }
+
+    private static void assertEqualSets(TreeSet<Integer> oracle, MutableArraySet<Integer> set) {
+        assertEquals(new ArrayList<>(oracle), new ArrayList<>(set));
+        assertEquals(new ArrayList<>(oracle), new ArrayList<>(set.snapshot()));
+        assertEquals(oracle.size(), set.size());
+        assertEquals(oracle, set);
+    }
+}
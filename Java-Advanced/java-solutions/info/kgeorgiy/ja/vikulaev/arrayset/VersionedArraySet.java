@@ -0,0 +1,202 @@
+package info.kgeorgiy.ja.vikulaev.arrayset;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Read-copy-update holder of {@link ArraySet} versions. Writers publish new versions atomically,
+ * readers take current version by one volatile read and never lock. Each read operation of this set
+ * works with a single version, e.g. iterator doesn't see versions published after its creation.
+ * <p>
+ * Replaced version stays in memory while some reader still holds it or any view of it. Backing arrays
+ * of such versions are tracked by weak references, so {@link #stats()} reports how many of them
+ * and how many bytes are retained. Versions which share an array are counted once.
+ *
+ * @param <T> type of elements
+ */
+public class VersionedArraySet<T> extends AbstractSet<T> {
+    // Estimated sizes for compressed references
+    private static final long ARRAY_HEADER_BYTES = 16;
+    private static final long REFERENCE_BYTES = 4;
+
+    /**
+     * Published version of the set
+     *
+     * @param set         immutable set
+     * @param number      number of version, initial one is 0
+     * @param publishNanos time when this version was published
+     */
+    private record Version<T>(ArraySet<T> set, long number, long publishNanos) {
+    }
+
+    /**
+     * Backing array of replaced version, which may still be used by readers.
+     * References to the same array are equal while it is reachable.
+     */
+    private static final class Retired extends WeakReference<Object[]> {
+        private final long bytes;
+        private final int hash;
+
+        Retired(final Object[] array, final ReferenceQueue<Object[]> queue) {
+            super(array, queue);
+            this.bytes = bytes(array);
+            this.hash = System.identityHashCode(array);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Retired other) || hash != other.hash) {
+                return false;
+            }
+            Object[] array = get();
+            return array != null && array == other.get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Statistics of versions
+     *
+     * @param versions          number of published versions except the initial one
+     * @param retries           number of updates which were recomputed because other version was published concurrently
+     * @param meanLifetimeNanos mean time between publication of version and its replacement
+     * @param retainedArrays    number of distinct arrays of replaced versions which are still reachable
+     * @param retainedBytes     estimated size of these arrays
+     * @param currentBytes      estimated size of array of current version
+     */
+    public record Stats(long versions, long retries, long meanLifetimeNanos,
+                        int retainedArrays, long retainedBytes, long currentBytes) {
+    }
+
+    private final AtomicReference<Version<T>> current;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder lifetimeNanos = new LongAdder();
+    private final LongAdder retainedBytes = new LongAdder();
+    // Strong references to Retired, otherwise they would be collected together with their arrays
+    private final Set<Retired> retired = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<Object[]> collected = new ReferenceQueue<>();
+
+    public VersionedArraySet(ArraySet<T> initial) {
+        this.current = new AtomicReference<>(new Version<>(initial, 0, System.nanoTime()));
+    }
+
+    /**
+     * Returns current version. It is immutable, so it can be used for any number of lookups.
+     *
+     * @return current version
+     */
+    public ArraySet<T> get() {
+        return current.get().set();
+    }
+
+    /**
+     * Returns number of current version.
+     *
+     * @return number of version, initial one is 0
+     */
+    public long version() {
+        return current.get().number();
+    }
+
+    /**
+     * Publishes new version.
+     *
+     * @param set new version
+     */
+    public void publish(ArraySet<T> set) {
+        update(old -> set);
+    }
+
+    /**
+     * Publishes version which is computed from the current one. If other version is published concurrently,
+     * function is applied again to that version, so it should be free of side effects.
+     *
+     * @param function function which computes new version from current one
+     * @return published version
+     */
+    public ArraySet<T> updateAndGet(UnaryOperator<ArraySet<T>> function) {
+        return update(function).set();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return get().contains(o);
+    }
+
+    @Override
+    public int size() {
+        return get().size();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return get().iterator();
+    }
+
+    /**
+     * Returns statistics of versions.
+     *
+     * @return statistics
+     */
+    public Stats stats() {
+        expunge();
+        Version<T> version = current.get();
+        long versions = version.number();
+        return new Stats(versions, retries.sum(), versions == 0 ? 0 : lifetimeNanos.sum() / versions,
+                retired.size(), retainedBytes.sum(), bytes(version.set().array()));
+    }
+
+    // Publishes version computed by function and returns it
+    private Version<T> update(UnaryOperator<ArraySet<T>> function) {
+        while (true) {
+            Version<T> old = current.get();
+            Version<T> next = new Version<>(function.apply(old.set()), old.number() + 1, System.nanoTime());
+            if (current.compareAndSet(old, next)) {
+                retire(old, next);
+                return next;
+            }
+            retries.increment();
+        }
+    }
+
+    private void retire(Version<T> old, Version<T> next) {
+        lifetimeNanos.add(next.publishNanos() - old.publishNanos());
+        Object[] array = old.set().array();
+        if (array != next.set().array()) {
+            // Reference which is not added is unreachable, so it is never enqueued
+            Retired reference = new Retired(array, collected);
+            if (retired.add(reference)) {
+                retainedBytes.add(reference.bytes);
+            }
+        }
+        expunge();
+    }
+
+    // Forgets arrays which are collected
+    private void expunge() {
+        for (Object reference; (reference = collected.poll()) != null; ) {
+            Retired array = (Retired) reference;
+            if (retired.remove(array)) {
+                retainedBytes.add(-array.bytes);
+            }
+        }
+    }
+
+    private static long bytes(Object[] array) {
+        return ARRAY_HEADER_BYTES + REFERENCE_BYTES * array.length;
+    }
+}
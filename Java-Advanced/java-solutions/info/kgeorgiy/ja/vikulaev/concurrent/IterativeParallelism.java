@@ -1,52 +1,90 @@
 package info.kgeorgiy.ja.vikulaev.concurrent;
 
-import info.kgeorgiy.java.advanced.concurrent.ScalarIP;
+import info.kgeorgiy.java.advanced.concurrent.ListIP;
 import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
 
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
-import java.util.function.Function;
-import java.util.function.Predicate;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.*;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
-public class IterativeParallelism implements ScalarIP {
+public class IterativeParallelism implements ListIP, AutoCloseable {
+
+    /**
+     * Padding in front of result of thread, so it doesn't share cache line with fields of other objects.
+     * Superclass fields are laid out before subclass ones, so padding can't be reordered after result.
+     */
+    @SuppressWarnings("unused")
+    private abstract static class LeftPadding {
+        private long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    /**
+     * Result of thread which is written by that thread only.
+     *
+     * @param <E>
+     */
+    private abstract static class PaddedResult<E> extends LeftPadding {
+        /**
+         * Result of task
+         */
+        protected E result;
+    }
 
     /**
      * inner Runnable class which is holding current thread, result and thread's task.
      *
-     * @param <T>
      * @param <E>
      */
-    private static class MyRunnable<T, E> implements Runnable {
+    @SuppressWarnings("unused")
+    private static class MyRunnable<E> extends PaddedResult<E> implements Runnable {
 
         /**
-         * List of values on which function applies
+         * Padding after result, so runnables allocated one after another don't write to the same cache line
+         */
+        private long p11, p12, p13, p14, p15, p16, p17;
+        /**
+         * Bounds of range on which function applies
          */
-        private final List<? extends T> values;
+        private final int from, to;
         /**
          * Current thread task
          */
-        private final Function<Stream<? extends T>, ? extends E> function;
+        private final RangeFunction<? extends E> function;
         /**
          * Current thread
          */
         private final Thread thread;
-        /**
-         * Result of task
-         */
-        private E result;
 
-        MyRunnable(final List<? extends T> values, final Function<Stream<? extends T>, ? extends E> function) {
-            this.values = values;
+        MyRunnable(final int from, final int to, final RangeFunction<? extends E> function, final ThreadFactory threadFactory) {
+            this.from = from;
+            this.to = to;
             this.function = function;
-            this.thread = new Thread(this);
+            this.thread = threadFactory.newThread(this);
         }
 
         @Override
         public void run() {
-            result = function.apply(values.stream());
+            result = function.apply(from, to);
         }
 
         /**
@@ -84,30 +122,239 @@ public class IterativeParallelism implements ScalarIP {
         }
     }
 
+    /**
+     * Inner RecursiveTask which splits its range of values in halves until it is small enough
+     * and then applies function to it. Idle workers of the pool steal the halves, so skewed chunks
+     * don't leave them without work.
+     *
+     * @param <E>
+     */
+    @SuppressWarnings("serial")
+    private static class SplittingTask<E> extends RecursiveTask<List<E>> {
+
+        /**
+         * Task to apply on each leaf range
+         */
+        private final RangeFunction<? extends E> function;
+        /**
+         * Maximal size of range which is not split any more
+         */
+        private final int threshold;
+        /**
+         * Bounds of current range
+         */
+        private final int from, to;
+
+        SplittingTask(final RangeFunction<? extends E> function, final int threshold, final int from, final int to) {
+            this.function = function;
+            this.threshold = threshold;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<E> compute() {
+            if (to - from <= threshold) {
+                List<E> result = new ArrayList<>(1);
+                if (from < to) {
+                    result.add(function.apply(from, to));
+                }
+                return result;
+            }
+            int middle = (from + to) >>> 1;
+            // Front half is computed by current worker, so values are scanned roughly in order of the list
+            SplittingTask<E> right = new SplittingTask<E>(function, threshold, middle, to);
+            right.fork();
+            List<E> result = new SplittingTask<E>(function, threshold, from, middle).compute();
+            result.addAll(right.join());
+            return result;
+        }
+    }
+
+    /**
+     * Function which is applied to range {@code [from, to)} of indices of values
+     *
+     * @param <E> parameter of return values
+     */
+    @FunctionalInterface
+    private interface RangeFunction<E> {
+        E apply(int from, int to);
+    }
+
+    /**
+     * Range {@code [from, to)} of indices which is passed to ParallelMapper
+     */
+    private record Range(int from, int to) {
+    }
+
+    /**
+     * Values of list without random access which are walked by its iterator once.
+     * Threads take pieces of the walk in order and apply function to each piece while the next ones
+     * are being cut, so the walk is stopped as soon as the call is done.
+     *
+     * @param <T> parameter of list values
+     * @param <E> parameter of return values
+     */
+    private static class Pieces<T, E> {
+        /**
+         * The only iterator of list, it is advanced under the monitor of pieces
+         */
+        private final Iterator<? extends T> iterator;
+        /**
+         * Number of values in list
+         */
+        private final int size;
+        /**
+         * Number of values in each piece but the last one
+         */
+        private final int pieceSize;
+        /**
+         * Function to apply on each piece
+         */
+        private final Function<Stream<? extends T>, ? extends E> function;
+        /**
+         * Condition on which the walk is stopped
+         */
+        private final BooleanSupplier stop;
+        /**
+         * Result of each piece
+         */
+        private final Object[] results;
+        /**
+         * Index of the first piece which is not taken yet
+         */
+        private int next;
+
+        Pieces(final List<? extends T> values, final int pieceSize,
+               final Function<Stream<? extends T>, ? extends E> function, final BooleanSupplier stop) {
+            this.iterator = values.iterator();
+            this.size = values.size();
+            this.pieceSize = pieceSize;
+            this.function = function;
+            this.stop = stop;
+            this.results = new Object[(size + pieceSize - 1) / pieceSize];
+        }
+
+        /**
+         * Takes pieces one by one and applies function to them until the list is over or the walk is stopped.
+         */
+        @SuppressWarnings("unchecked")
+        void run() {
+            while (true) {
+                final int index;
+                final Object[] piece;
+                synchronized (this) {
+                    if (next == results.length || stop.getAsBoolean()) {
+                        return;
+                    }
+                    index = next++;
+                    piece = new Object[Math.min(pieceSize, size - index * pieceSize)];
+                    for (int i = 0; i < piece.length; i++) {
+                        piece[i] = iterator.next();
+                    }
+                }
+                results[index] = function.apply((Stream<T>) Arrays.stream(piece));
+            }
+        }
+
+        /**
+         * Returns results of taken pieces in order of list. It is called after all threads have finished.
+         *
+         * @return stream of results of each taken piece
+         */
+        @SuppressWarnings("unchecked")
+        synchronized Stream<E> results() {
+            return Arrays.stream(results, 0, next).map(result -> (E) result);
+        }
+    }
+
+    /**
+     * How many leaf ranges per requested thread are made by the work-stealing mode
+     */
+    private static final int SPLITS_PER_THREAD = 4;
+    /**
+     * Maximal size of piece of list without random access, so a short-circuiting call walks
+     * not much further than its answer
+     */
+    private static final int MAX_PIECE_SIZE = 1 << 12;
+
     /**
      * Inner ParallelMapper
      */
     private final ParallelMapper parallelMapper;
+    /**
+     * Work-stealing pool which is reused by all calls
+     */
+    private final ForkJoinPool pool;
+    /**
+     * Variable which represents is pool created (and so has to be closed) by this instance
+     */
+    private final boolean ownsPool;
+    /**
+     * Factory of threads which are created for each call when there is neither mapper nor pool
+     */
+    private final ThreadFactory threadFactory;
 
     /**
-     * Constructor from ParallelMapper
+     * Constructor from ParallelMapper. Without mapper each call creates its own threads.
      *
-     * @param parallelMapper ParallelMapper
+     * @param parallelMapper ParallelMapper or null
      */
 
     public IterativeParallelism(ParallelMapper parallelMapper) {
         this.parallelMapper = parallelMapper;
+        this.pool = null;
+        this.ownsPool = false;
+        this.threadFactory = parallelMapper == null ? Thread::new : null;
+    }
+
+    /**
+     * Constructor from ForkJoinPool. Pool is shared with the caller and is not shut down by {@link #close()}.
+     *
+     * @param pool work-stealing pool to run tasks on
+     */
+    public IterativeParallelism(ForkJoinPool pool) {
+        this.parallelMapper = null;
+        this.pool = Objects.requireNonNull(pool);
+        this.ownsPool = false;
+        this.threadFactory = null;
+    }
+
+    /**
+     * Constructor which creates own long-lived work-stealing pool. It is reused by all calls
+     * and is shut down by {@link #close()}.
+     *
+     * @param parallelism number of worker threads of the pool
+     */
+    public IterativeParallelism(int parallelism) {
+        this.parallelMapper = null;
+        this.pool = new ForkJoinPool(parallelism);
+        this.ownsPool = true;
+        this.threadFactory = null;
+    }
+
+    /**
+     * Constructor from ThreadFactory. Each call creates its threads by the factory,
+     * e.g. {@code Thread.ofVirtual().factory()} makes chunks which block on I/O cheap.
+     *
+     * @param threadFactory factory of threads for chunks
+     */
+    public IterativeParallelism(ThreadFactory threadFactory) {
+        this.parallelMapper = null;
+        this.pool = null;
+        this.ownsPool = false;
+        this.threadFactory = Objects.requireNonNull(threadFactory);
     }
 
     /**
      * Empty constructor
      */
     public IterativeParallelism() {
-        parallelMapper = null;
+        this((ThreadFactory) Thread::new);
     }
 
     /**
-     * Main body of class. It's generates threads itself or runs by ParallelMapper
+     * Applies function to chunks of list.
      *
      * @param threads number of threads
      * @param values  list of values function applies to
@@ -120,37 +367,86 @@ public class IterativeParallelism implements ScalarIP {
     private <T, E> Stream<? extends E> threading(int threads,
                                                  List<? extends T> values,
                                                  Function<Stream<? extends T>, ? extends E> applyer) throws InterruptedException {
+        return threading(threads, values, applyer, () -> false);
+    }
+
+    /**
+     * Applies function to chunks of list. Chunks of {@link RandomAccess} list are views of it.
+     * Other lists (e.g. {@link java.util.LinkedList}) are walked by iterator once and cut into {@link Pieces},
+     * otherwise each chunk would traverse list from its head to its bound.
+     *
+     * @param threads number of threads
+     * @param values  list of values function applies to
+     * @param applyer function to apply on list
+     * @param stop    condition on which the rest of list without random access may be skipped
+     * @param <T>     parameter of list values
+     * @param <E>     parameter of return values
+     * @return stream of results of each chunk
+     * @throws InterruptedException if values is null or treads < 1 or it's unable to join all threads.
+     */
+    private <T, E> Stream<? extends E> threading(int threads,
+                                                 List<? extends T> values,
+                                                 Function<Stream<? extends T>, ? extends E> applyer,
+                                                 BooleanSupplier stop) throws InterruptedException {
+        if (values == null) {
+            throw new IllegalArgumentException("Can't process a list. List must be not null.");
+        }
+        if (values instanceof RandomAccess) {
+            return threading(threads, values.size(), (from, to) -> applyer.apply(values.subList(from, to).stream()));
+        }
         if (threads < 1) {
             throw new IllegalArgumentException(String.format("Number of threads must be at least one. %d were given", threads));
         }
-        if (values == null) {
-            throw new IllegalArgumentException("Can't process a list. List must be not null.");
+        int pieceSize = Math.max(1, Math.min(MAX_PIECE_SIZE, values.size() / (threads * SPLITS_PER_THREAD)));
+        final Pieces<T, E> pieces = new Pieces<>(values, pieceSize, applyer, stop);
+        threading(threads, Math.min(threads, pieces.results.length), (from, to) -> {
+            pieces.run();
+            return null;
+        });
+        return pieces.results();
+    }
+
+    /**
+     * Main body of class. It's generates threads itself, runs by ParallelMapper or by work-stealing pool
+     *
+     * @param threads number of threads
+     * @param size    number of values function applies to
+     * @param applyer function to apply on range of indices of values
+     * @param <E>     parameter of return values
+     * @return stream of results of each thread
+     * @throws InterruptedException if treads < 1 or it's unable to join all threads.
+     */
+    private <E> Stream<? extends E> threading(int threads, int size, RangeFunction<? extends E> applyer) throws InterruptedException {
+        if (threads < 1) {
+            throw new IllegalArgumentException(String.format("Number of threads must be at least one. %d were given", threads));
+        }
+
+        if (pool != null) {
+            return forkJoin(threads, size, applyer);
         }
 
-        int chunkSize = Math.max(1, (int) Math.ceil((double) values.size() / threads));
-        Stream<List<? extends T>> chunks = IntStream.range(0, (values.size() + chunkSize - 1) / chunkSize)
-                .mapToObj(i -> values.subList(i * chunkSize, Math.min((i + 1) * chunkSize, values.size())));
+        int chunkSize = Math.max(1, (int) Math.ceil((double) size / threads));
+        Stream<Range> chunks = IntStream.range(0, (size + chunkSize - 1) / chunkSize)
+                .mapToObj(i -> new Range(i * chunkSize, Math.min((i + 1) * chunkSize, size)));
 
         Stream<? extends E> res;
 
         if (parallelMapper != null) {
-            List<Stream<? extends T>> streams = new ArrayList<>();
-            chunks.forEach(chunk -> streams.add(chunk.stream()));
-            res = new ArrayList<>(parallelMapper.map(applyer, streams)).stream();
+            res = new ArrayList<>(parallelMapper.map(range -> applyer.apply(range.from(), range.to()), chunks.toList())).stream();
         } else {
-            List<MyRunnable<T, E>> tasks = new ArrayList<>();
+            List<MyRunnable<E>> tasks = new ArrayList<>();
 
             chunks.forEach(chunk -> {
-                MyRunnable<T, E> runnable = new MyRunnable<>(chunk, applyer);
+                MyRunnable<E> runnable = new MyRunnable<>(chunk.from(), chunk.to(), applyer, threadFactory);
                 tasks.add(runnable);
                 runnable.start();
             });
 
-            for (MyRunnable<T, E> task : tasks) {
+            for (MyRunnable<E> task : tasks) {
                 try {
                     task.join();
                 } catch (InterruptedException e) {
-                    tasks.subList(tasks.indexOf(task), threads).forEach(MyRunnable::interrupt);
+                    tasks.subList(tasks.indexOf(task), tasks.size()).forEach(MyRunnable::interrupt);
                     throw e;
                 }
             }
@@ -161,6 +457,36 @@ public class IterativeParallelism implements ScalarIP {
         return res;
     }
 
+    /**
+     * Runs function on the pool splitting values recursively
+     * into about {@link #SPLITS_PER_THREAD} ranges per thread.
+     *
+     * @param threads number of threads
+     * @param size    number of values function applies to
+     * @param applyer function to apply on range of indices of values
+     * @param <E>     parameter of return values
+     * @return stream of results of each leaf range in order of values
+     * @throws InterruptedException if current thread was interrupted while waiting for the pool.
+     */
+    private <E> Stream<? extends E> forkJoin(int threads, int size, RangeFunction<? extends E> applyer) throws InterruptedException {
+        int threshold = Math.max(1, size / (threads * SPLITS_PER_THREAD));
+        ForkJoinTask<? extends List<? extends E>> task = pool.submit(new SplittingTask<E>(applyer, threshold, 0, size));
+        try {
+            return task.get().stream();
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
     @Override
     @SuppressWarnings("OptionalGetWithoutIsPresent")
     public <T> T maximum(int threads, List<? extends T> values, Comparator<? super T> comparator) throws InterruptedException {
@@ -174,12 +500,34 @@ public class IterativeParallelism implements ScalarIP {
 
     @Override
     public <T> boolean all(int threads, List<? extends T> values, Predicate<? super T> predicate) throws InterruptedException {
-        return threading(threads, values, stream -> stream.allMatch(predicate)).allMatch(Boolean::booleanValue);
+        return !findWitness(threads, values, predicate.negate());
     }
 
     @Override
     public <T> boolean any(int threads, List<? extends T> values, Predicate<? super T> predicate) throws InterruptedException {
-        return !all(threads, values, predicate.negate());
+        return findWitness(threads, values, predicate);
+    }
+
+    /**
+     * Checks if any value matches predicate. Chunks share a flag which is raised by the first chunk
+     * that finds a matching value, so all other chunks stop scanning (or don't start at all) right after that.
+     *
+     * @param threads   number of threads
+     * @param values    list of values to check
+     * @param predicate predicate to find a witness for
+     * @param <T>       parameter of list values
+     * @return true if some value matches predicate
+     * @throws InterruptedException if it's unable to join all threads.
+     */
+    private <T> boolean findWitness(int threads, List<? extends T> values, Predicate<? super T> predicate) throws InterruptedException {
+        final AtomicBoolean found = new AtomicBoolean();
+        return threading(threads, values, stream -> {
+            boolean matched = stream.takeWhile(value -> !found.get()).anyMatch(predicate);
+            if (matched) {
+                found.set(true);
+            }
+            return matched;
+        }, found::get).anyMatch(Boolean::booleanValue);
     }
 
     @Override
@@ -187,4 +535,640 @@ public class IterativeParallelism implements ScalarIP {
         return threading(threads, values, stream -> stream.filter(predicate).count())
                 .mapToInt(Long::intValue).sum();
     }
+
+    @Override
+    public String join(int threads, List<?> values) throws InterruptedException {
+        return threading(threads, values, stream -> stream.map(String::valueOf).collect(Collectors.joining()))
+                .collect(Collectors.joining());
+    }
+
+    @Override
+    public <T> List<T> filter(int threads, List<? extends T> values, Predicate<? super T> predicate) throws InterruptedException {
+        return concat(threading(threads, values, stream -> stream.filter(predicate).toList()));
+    }
+
+    @Override
+    public <T, U> List<U> map(int threads, List<? extends T> values, Function<? super T, ? extends U> f) throws InterruptedException {
+        return concat(threading(threads, values, stream -> stream.map(f).toList()));
+    }
+
+    /**
+     * Applies function to each value and reduces results by monoid.
+     *
+     * @param threads number of threads
+     * @param values  list of values
+     * @param lift    function to apply on each value
+     * @param monoid  monoid to reduce results with
+     * @param <T>     parameter of list values
+     * @param <R>     parameter of result
+     * @return reduced results or identity of monoid if there are no values
+     * @throws InterruptedException if it's unable to join all threads.
+     */
+    public <T, R> R mapReduce(int threads, List<? extends T> values,
+                              Function<? super T, ? extends R> lift, Monoid<R> monoid) throws InterruptedException {
+        return threading(threads, values, stream -> stream.<R>map(lift).reduce(monoid.identity(), monoid.operator()))
+                .collect(Collectors.reducing(monoid.identity(), monoid.operator()));
+    }
+
+    /**
+     * Reduces values by monoid.
+     *
+     * @param threads number of threads
+     * @param values  list of values
+     * @param monoid  monoid to reduce values with
+     * @param <T>     parameter of list values
+     * @return reduced values or identity of monoid if there are no values
+     * @throws InterruptedException if it's unable to join all threads.
+     */
+    public <T> T reduce(int threads, List<? extends T> values, Monoid<T> monoid) throws InterruptedException {
+        return mapReduce(threads, values, Function.identity(), monoid);
+    }
+
+    /**
+     * Performs mutable reduction of values by collector. Each chunk is accumulated into its own container,
+     * containers are combined in order of chunks, so collector doesn't have to be concurrent or unordered.
+     *
+     * @param threads   number of threads
+     * @param values    list of values
+     * @param collector collector to accumulate values with
+     * @param <T>       parameter of list values
+     * @param <A>       parameter of intermediate container
+     * @param <R>       parameter of result
+     * @return result of collector
+     * @throws InterruptedException if it's unable to join all threads.
+     */
+    public <T, A, R> R collect(int threads, List<? extends T> values,
+                               Collector<? super T, A, R> collector) throws InterruptedException {
+        BiConsumer<A, ? super T> accumulator = collector.accumulator();
+        List<? extends A> containers = threading(threads, values, stream -> {
+            A container = collector.supplier().get();
+            stream.forEach(value -> accumulator.accept(container, value));
+            return container;
+        }).toList();
+
+        A result = collector.supplier().get();
+        for (A container : containers) {
+            result = collector.combiner().apply(result, container);
+        }
+        return collector.finisher().apply(result);
+    }
+
+    /**
+     * Groups values by key. Values of each group are in order of the list.
+     *
+     * @param threads    number of threads
+     * @param values     list of values
+     * @param classifier function which returns key of value
+     * @param <T>        parameter of list values
+     * @param <K>        parameter of keys
+     * @return map from key to list of values with that key
+     * @throws InterruptedException if it's unable to join all threads.
+     */
+    public <T, K> Map<K, List<T>> groupingBy(int threads, List<? extends T> values,
+                                             Function<? super T, ? extends K> classifier) throws InterruptedException {
+        return collect(threads, values, Collectors.<T, K>groupingBy(classifier));
+    }
+
+    /**
+     * Concatenates lists of each chunk into one list.
+     *
+     * @param chunks stream of lists of each chunk
+     * @param <U>    parameter of list values
+     * @return list of all values in order of chunks
+     */
+    private static <U> List<U> concat(Stream<? extends List<? extends U>> chunks) {
+        return chunks.<U>flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns maximum of values.
+     *
+     * @param threads number of threads
+     * @param values  values to find maximum of
+     * @return maximal value
+     * @throws InterruptedException if it's unable to join all threads.
+     * @throws NoSuchElementException if there are no values.
+     */
+    public int maximum(int threads, int[] values) throws InterruptedException {
+        return reduceInt(threads, values, Math::max);
+    }
+
+    /**
+     * Returns minimum of values.
+     *
+     * @param threads number of threads
+     * @param values  values to find minimum of
+     * @return minimal value
+     * @throws InterruptedException if it's unable to join all threads.
+     * @throws NoSuchElementException if there are no values.
+     */
+    public int minimum(int threads, int[] values) throws InterruptedException {
+        return reduceInt(threads, values, Math::min);
+    }
+
+    /**
+     * Returns sum of values.
+     *
+     * @param threads number of threads
+     * @param values  values to sum
+     * @return sum of values
+     * @throws InterruptedException if it's unable to join all threads.
+     */
+    public long sum(int threads, int[] values) throws InterruptedException {
+        return threading(threads, values.length, (from, to) -> {
+            long result = 0;
+            for (int i = from; i < to; i++) {
+                result += values[i];
+            }
+            return result;
+        }).mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Returns number of values which match predicate.
+     *
+     * @param threads   number of threads
+     * @param values    values to check
+     * @param predicate predicate to match
+     * @return number of matching values
+     * @throws InterruptedException if it's unable to join all threads.
+     */
+    public int count(int threads, int[] values, IntPredicate predicate) throws InterruptedException {
+        return threading(threads, values.length, (from, to) -> {
+            int result = 0;
+            for (int i = from; i < to; i++) {
+                if (predicate.test(values[i])) {
+                    result++;
+                }
+            }
+            return result;
+        }).mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Checks if all values match predicate.
+     *
+     * @param threads   number of threads
+     * @param values    values to check
+     * @param predicate predicate to match
+     * @return true if all values match predicate
+     * @throws InterruptedException if it's unable to join all threads.
+     */
+    public boolean all(int threads, int[] values, IntPredicate predicate) throws InterruptedException {
+        return !any(threads, values, predicate.negate());
+    }
+
+    /**
+     * Checks if any of values matches predicate.
+     *
+     * @param threads   number of threads
+     * @param values    values to check
+     * @param predicate predicate to match
+     * @return true if some value matches predicate
+     * @throws InterruptedException if it's unable to join all threads.
+     */
+    public boolean any(int threads, int[] values, IntPredicate predicate) throws InterruptedException {
+        final AtomicBoolean found = new AtomicBoolean();
+        return threading(threads, values.length, (from, to) -> {
+            for (int i = from; i < to && !found.get(); i++) {
+                if (predicate.test(values[i])) {
+                    found.set(true);
+                    return true;
+                }
+            }
+            return false;
+        }).anyMatch(Boolean::booleanValue);
+    }
+
+    /**
+     * Same as {@link #maximum(int, int[])} for remaining values of buffer.
+     */
+    public int maximum(int threads, IntBuffer values) throws InterruptedException {
+        return reduceInt(threads, values, Math::max);
+    }
+
+    /**
+     * Same as {@link #minimum(int, int[])} for remaining values of buffer.
+     */
+    public int minimum(int threads, IntBuffer values) throws InterruptedException {
+        return reduceInt(threads, values, Math::min);
+    }
+
+    /**
+     * Same as {@link #sum(int, int[])} for remaining values of buffer.
+     */
+    public long sum(int threads, IntBuffer values) throws InterruptedException {
+        final int position = values.position();
+        return threading(threads, values.remaining(), (from, to) -> {
+            long result = 0;
+            for (int i = position + from; i < position + to; i++) {
+                result += values.get(i);
+            }
+            return result;
+        }).mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Same as {@link #count(int, int[], IntPredicate)} for remaining values of buffer.
+     */
+    public int count(int threads, IntBuffer values, IntPredicate predicate) throws InterruptedException {
+        final int position = values.position();
+        return threading(threads, values.remaining(), (from, to) -> {
+            int result = 0;
+            for (int i = position + from; i < position + to; i++) {
+                if (predicate.test(values.get(i))) {
+                    result++;
+                }
+            }
+            return result;
+        }).mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Same as {@link #all(int, int[], IntPredicate)} for remaining values of buffer.
+     */
+    public boolean all(int threads, IntBuffer values, IntPredicate predicate) throws InterruptedException {
+        return !any(threads, values, predicate.negate());
+    }
+
+    /**
+     * Same as {@link #any(int, int[], IntPredicate)} for remaining values of buffer.
+     */
+    public boolean any(int threads, IntBuffer values, IntPredicate predicate) throws InterruptedException {
+        final int position = values.position();
+        final AtomicBoolean found = new AtomicBoolean();
+        return threading(threads, values.remaining(), (from, to) -> {
+            for (int i = position + from; i < position + to && !found.get(); i++) {
+                if (predicate.test(values.get(i))) {
+                    found.set(true);
+                    return true;
+                }
+            }
+            return false;
+        }).anyMatch(Boolean::booleanValue);
+    }
+
+    /**
+     * Same as {@link #maximum(int, int[])} for long values.
+     */
+    public long maximum(int threads, long[] values) throws InterruptedException {
+        return reduceLong(threads, values, Math::max);
+    }
+
+    /**
+     * Same as {@link #minimum(int, int[])} for long values.
+     */
+    public long minimum(int threads, long[] values) throws InterruptedException {
+        return reduceLong(threads, values, Math::min);
+    }
+
+    /**
+     * Same as {@link #sum(int, int[])} for long values.
+     */
+    public long sum(int threads, long[] values) throws InterruptedException {
+        return threading(threads, values.length, (from, to) -> {
+            long result = 0;
+            for (int i = from; i < to; i++) {
+                result += values[i];
+            }
+            return result;
+        }).mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Same as {@link #count(int, int[], IntPredicate)} for long values.
+     */
+    public int count(int threads, long[] values, LongPredicate predicate) throws InterruptedException {
+        return threading(threads, values.length, (from, to) -> {
+            int result = 0;
+            for (int i = from; i < to; i++) {
+                if (predicate.test(values[i])) {
+                    result++;
+                }
+            }
+            return result;
+        }).mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Same as {@link #all(int, int[], IntPredicate)} for long values.
+     */
+    public boolean all(int threads, long[] values, LongPredicate predicate) throws InterruptedException {
+        return !any(threads, values, predicate.negate());
+    }
+
+    /**
+     * Same as {@link #any(int, int[], IntPredicate)} for long values.
+     */
+    public boolean any(int threads, long[] values, LongPredicate predicate) throws InterruptedException {
+        final AtomicBoolean found = new AtomicBoolean();
+        return threading(threads, values.length, (from, to) -> {
+            for (int i = from; i < to && !found.get(); i++) {
+                if (predicate.test(values[i])) {
+                    found.set(true);
+                    return true;
+                }
+            }
+            return false;
+        }).anyMatch(Boolean::booleanValue);
+    }
+
+    /**
+     * Same as {@link #maximum(int, int[])} for remaining values of buffer.
+     */
+    public long maximum(int threads, LongBuffer values) throws InterruptedException {
+        return reduceLong(threads, values, Math::max);
+    }
+
+    /**
+     * Same as {@link #minimum(int, int[])} for remaining values of buffer.
+     */
+    public long minimum(int threads, LongBuffer values) throws InterruptedException {
+        return reduceLong(threads, values, Math::min);
+    }
+
+    /**
+     * Same as {@link #sum(int, int[])} for remaining values of buffer.
+     */
+    public long sum(int threads, LongBuffer values) throws InterruptedException {
+        final int position = values.position();
+        return threading(threads, values.remaining(), (from, to) -> {
+            long result = 0;
+            for (int i = position + from; i < position + to; i++) {
+                result += values.get(i);
+            }
+            return result;
+        }).mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Same as {@link #count(int, int[], IntPredicate)} for remaining values of buffer.
+     */
+    public int count(int threads, LongBuffer values, LongPredicate predicate) throws InterruptedException {
+        final int position = values.position();
+        return threading(threads, values.remaining(), (from, to) -> {
+            int result = 0;
+            for (int i = position + from; i < position + to; i++) {
+                if (predicate.test(values.get(i))) {
+                    result++;
+                }
+            }
+            return result;
+        }).mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Same as {@link #all(int, int[], IntPredicate)} for remaining values of buffer.
+     */
+    public boolean all(int threads, LongBuffer values, LongPredicate predicate) throws InterruptedException {
+        return !any(threads, values, predicate.negate());
+    }
+
+    /**
+     * Same as {@link #any(int, int[], IntPredicate)} for remaining values of buffer.
+     */
+    public boolean any(int threads, LongBuffer values, LongPredicate predicate) throws InterruptedException {
+        final int position = values.position();
+        final AtomicBoolean found = new AtomicBoolean();
+        return threading(threads, values.remaining(), (from, to) -> {
+            for (int i = position + from; i < position + to && !found.get(); i++) {
+                if (predicate.test(values.get(i))) {
+                    found.set(true);
+                    return true;
+                }
+            }
+            return false;
+        }).anyMatch(Boolean::booleanValue);
+    }
+
+    /**
+     * Same as {@link #maximum(int, int[])} for double values.
+     */
+    public double maximum(int threads, double[] values) throws InterruptedException {
+        return reduceDouble(threads, values, Math::max);
+    }
+
+    /**
+     * Same as {@link #minimum(int, int[])} for double values.
+     */
+    public double minimum(int threads, double[] values) throws InterruptedException {
+        return reduceDouble(threads, values, Math::min);
+    }
+
+    /**
+     * Same as {@link #sum(int, int[])} for double values.
+     */
+    public double sum(int threads, double[] values) throws InterruptedException {
+        return threading(threads, values.length, (from, to) -> {
+            double result = 0;
+            for (int i = from; i < to; i++) {
+                result += values[i];
+            }
+            return result;
+        }).mapToDouble(Double::doubleValue).sum();
+    }
+
+    /**
+     * Same as {@link #count(int, int[], IntPredicate)} for double values.
+     */
+    public int count(int threads, double[] values, DoublePredicate predicate) throws InterruptedException {
+        return threading(threads, values.length, (from, to) -> {
+            int result = 0;
+            for (int i = from; i < to; i++) {
+                if (predicate.test(values[i])) {
+                    result++;
+                }
+            }
+            return result;
+        }).mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Same as {@link #all(int, int[], IntPredicate)} for double values.
+     */
+    public boolean all(int threads, double[] values, DoublePredicate predicate) throws InterruptedException {
+        return !any(threads, values, predicate.negate());
+    }
+
+    /**
+     * Same as {@link #any(int, int[], IntPredicate)} for double values.
+     */
+    public boolean any(int threads, double[] values, DoublePredicate predicate) throws InterruptedException {
+        final AtomicBoolean found = new AtomicBoolean();
+        return threading(threads, values.length, (from, to) -> {
+            for (int i = from; i < to && !found.get(); i++) {
+                if (predicate.test(values[i])) {
+                    found.set(true);
+                    return true;
+                }
+            }
+            return false;
+        }).anyMatch(Boolean::booleanValue);
+    }
+
+    /**
+     * Same as {@link #maximum(int, int[])} for remaining values of buffer.
+     */
+    public double maximum(int threads, DoubleBuffer values) throws InterruptedException {
+        return reduceDouble(threads, values, Math::max);
+    }
+
+    /**
+     * Same as {@link #minimum(int, int[])} for remaining values of buffer.
+     */
+    public double minimum(int threads, DoubleBuffer values) throws InterruptedException {
+        return reduceDouble(threads, values, Math::min);
+    }
+
+    /**
+     * Same as {@link #sum(int, int[])} for remaining values of buffer.
+     */
+    public double sum(int threads, DoubleBuffer values) throws InterruptedException {
+        final int position = values.position();
+        return threading(threads, values.remaining(), (from, to) -> {
+            double result = 0;
+            for (int i = position + from; i < position + to; i++) {
+                result += values.get(i);
+            }
+            return result;
+        }).mapToDouble(Double::doubleValue).sum();
+    }
+
+    /**
+     * Same as {@link #count(int, int[], IntPredicate)} for remaining values of buffer.
+     */
+    public int count(int threads, DoubleBuffer values, DoublePredicate predicate) throws InterruptedException {
+        final int position = values.position();
+        return threading(threads, values.remaining(), (from, to) -> {
+            int result = 0;
+            for (int i = position + from; i < position + to; i++) {
+                if (predicate.test(values.get(i))) {
+                    result++;
+                }
+            }
+            return result;
+        }).mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Same as {@link #all(int, int[], IntPredicate)} for remaining values of buffer.
+     */
+    public boolean all(int threads, DoubleBuffer values, DoublePredicate predicate) throws InterruptedException {
+        return !any(threads, values, predicate.negate());
+    }
+
+    /**
+     * Same as {@link #any(int, int[], IntPredicate)} for remaining values of buffer.
+     */
+    public boolean any(int threads, DoubleBuffer values, DoublePredicate predicate) throws InterruptedException {
+        final int position = values.position();
+        final AtomicBoolean found = new AtomicBoolean();
+        return threading(threads, values.remaining(), (from, to) -> {
+            for (int i = position + from; i < position + to && !found.get(); i++) {
+                if (predicate.test(values.get(i))) {
+                    found.set(true);
+                    return true;
+                }
+            }
+            return false;
+        }).anyMatch(Boolean::booleanValue);
+    }
+
+    /**
+     * Reduces values with associative operator. Values are not boxed inside of chunks.
+     *
+     * @param threads  number of threads
+     * @param values   values to reduce
+     * @param operator associative operator
+     * @return reduced value
+     * @throws InterruptedException if it's unable to join all threads.
+     * @throws NoSuchElementException if there are no values.
+     */
+    private int reduceInt(int threads, int[] values, IntBinaryOperator operator) throws InterruptedException {
+        return threading(threads, values.length, (from, to) -> {
+            int result = values[from];
+            for (int i = from + 1; i < to; i++) {
+                result = operator.applyAsInt(result, values[i]);
+            }
+            return result;
+        }).mapToInt(Integer::intValue).reduce(operator).orElseThrow();
+    }
+
+    /**
+     * Same as {@link #reduceInt(int, int[], IntBinaryOperator)} for remaining values of buffer.
+     */
+    private int reduceInt(int threads, IntBuffer values, IntBinaryOperator operator) throws InterruptedException {
+        final int position = values.position();
+        return threading(threads, values.remaining(), (from, to) -> {
+            int result = values.get(position + from);
+            for (int i = position + from + 1; i < position + to; i++) {
+                result = operator.applyAsInt(result, values.get(i));
+            }
+            return result;
+        }).mapToInt(Integer::intValue).reduce(operator).orElseThrow();
+    }
+
+    /**
+     * Same as {@link #reduceInt(int, int[], IntBinaryOperator)} for long values.
+     */
+    private long reduceLong(int threads, long[] values, LongBinaryOperator operator) throws InterruptedException {
+        return threading(threads, values.length, (from, to) -> {
+            long result = values[from];
+            for (int i = from + 1; i < to; i++) {
+                result = operator.applyAsLong(result, values[i]);
+            }
+            return result;
+        }).mapToLong(Long::longValue).reduce(operator).orElseThrow();
+    }
+
+    /**
+     * Same as {@link #reduceInt(int, int[], IntBinaryOperator)} for remaining values of buffer.
+     */
+    private long reduceLong(int threads, LongBuffer values, LongBinaryOperator operator) throws InterruptedException {
+        final int position = values.position();
+        return threading(threads, values.remaining(), (from, to) -> {
+            long result = values.get(position + from);
+            for (int i = position + from + 1; i < position + to; i++) {
+                result = operator.applyAsLong(result, values.get(i));
+            }
+            return result;
+        }).mapToLong(Long::longValue).reduce(operator).orElseThrow();
+    }
+
+    /**
+     * Same as {@link #reduceInt(int, int[], IntBinaryOperator)} for double values.
+     */
+    private double reduceDouble(int threads, double[] values, DoubleBinaryOperator operator) throws InterruptedException {
+        return threading(threads, values.length, (from, to) -> {
+            double result = values[from];
+            for (int i = from + 1; i < to; i++) {
+                result = operator.applyAsDouble(result, values[i]);
+            }
+            return result;
+        }).mapToDouble(Double::doubleValue).reduce(operator).orElseThrow();
+    }
+
+    /**
+     * Same as {@link #reduceInt(int, int[], IntBinaryOperator)} for remaining values of buffer.
+     */
+    private double reduceDouble(int threads, DoubleBuffer values, DoubleBinaryOperator operator) throws InterruptedException {
+        final int position = values.position();
+        return threading(threads, values.remaining(), (from, to) -> {
+            double result = values.get(position + from);
+            for (int i = position + from + 1; i < position + to; i++) {
+                result = operator.applyAsDouble(result, values.get(i));
+            }
+            return result;
+        }).mapToDouble(Double::doubleValue).reduce(operator).orElseThrow();
+    }
+
+    /**
+     * Shuts down the pool if it was created by this instance
+     */
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
 }
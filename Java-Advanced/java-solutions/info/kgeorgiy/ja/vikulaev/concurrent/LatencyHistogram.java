@@ -0,0 +1,83 @@
+package info.kgeorgiy.ja.vikulaev.concurrent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations with power-of-two buckets. Recording costs one increment of a bucket
+ * and one of the total, so it can be left on permanently. Buckets are striped, so workers which record
+ * similar durations at the same time don't contend on one counter.
+ * Percentiles are upper bounds of their buckets, so they are accurate up to a factor of two.
+ */
+public final class LatencyHistogram {
+    /**
+     * Bucket {@code i} counts durations from {@code 2^(i - 1)} inclusive to {@code 2^i} exclusive nanoseconds
+     */
+    private final LongAdder[] buckets = new LongAdder[Long.SIZE];
+    /**
+     * Sum of all recorded durations
+     */
+    private final LongAdder total = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records duration.
+     *
+     * @param nanos duration in nanoseconds
+     */
+    public void record(final long nanos) {
+        buckets[Long.SIZE - Long.numberOfLeadingZeros(Math.max(0, nanos))].increment();
+        total.add(nanos);
+    }
+
+    /**
+     * Returns number of recorded durations.
+     *
+     * @return number of recorded durations
+     */
+    public long count() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Returns mean of recorded durations.
+     *
+     * @return mean in nanoseconds or 0 if nothing was recorded
+     */
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0 : (double) total.sum() / count;
+    }
+
+    /**
+     * Returns upper bound of given percentile of recorded durations.
+     *
+     * @param percentile percentile from 0 to 100
+     * @return upper bound of percentile in nanoseconds or 0 if nothing was recorded
+     */
+    public long percentile(final double percentile) {
+        long[] counts = new long[buckets.length];
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        long rank = (long) Math.ceil(count * percentile / 100);
+        for (int i = 0; i < counts.length; i++) {
+            rank -= counts[i];
+            if (rank <= 0 && counts[i] > 0) {
+                // Overflows to Long.MAX_VALUE for the last bucket
+                return (1L << i) - 1;
+            }
+        }
+        return 0;
+    }
+}
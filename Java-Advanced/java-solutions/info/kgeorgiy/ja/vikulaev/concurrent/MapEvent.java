@@ -0,0 +1,41 @@
+package info.kgeorgiy.ja.vikulaev.concurrent;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of one call of {@link ParallelMapperImpl}, from submission to completion.
+ */
+@Name("info.kgeorgiy.ja.vikulaev.concurrent.Map")
+@Label("Parallel Map")
+@Category("Parallel Mapper")
+@Description("Call of ParallelMapperImpl from submission to completion")
+class MapEvent extends Event {
+    @Label("Arguments")
+    int arguments;
+
+    @Label("Priority")
+    int priority;
+
+    @Label("Failed")
+    boolean failed;
+
+    /**
+     * Fills fields and commits the event if it is enabled and long enough.
+     *
+     * @param arguments number of arguments of the call
+     * @param priority  priority of the call
+     * @param failed    whether the call failed
+     */
+    void commit(final int arguments, final int priority, final boolean failed) {
+        if (shouldCommit()) {
+            this.arguments = arguments;
+            this.priority = priority;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
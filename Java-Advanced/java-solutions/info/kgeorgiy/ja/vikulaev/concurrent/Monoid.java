@@ -0,0 +1,13 @@
+package info.kgeorgiy.ja.vikulaev.concurrent;
+
+import java.util.function.BinaryOperator;
+
+/**
+ * Associative operator together with its identity element.
+ *
+ * @param identity identity element of operator
+ * @param operator associative operator
+ * @param <T>      type of values
+ */
+public record Monoid<T>(T identity, BinaryOperator<T> operator) {
+}
@@ -3,24 +3,104 @@ package info.kgeorgiy.ja.vikulaev.concurrent;
 
 import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
-import java.util.function.Supplier;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Collector;
 
 public class ParallelMapperImpl implements ParallelMapper {
 
+    /**
+     * Minimal number of ranges per worker, so the workers can balance uneven ranges
+     */
+    private static final int MIN_RANGES_PER_THREAD = 4;
+    /**
+     * Desired time of processing of one range. Ranges of cheap functions are long enough
+     * to amortize queue operations, ranges of expensive functions degrade to single elements.
+     */
+    private static final long TARGET_RANGE_NANOS = 100_000;
+    /**
+     * Priority of calls which don't specify it
+     */
+    public static final int DEFAULT_PRIORITY = 1;
+
     /**
      * Variable which represents is ParallelMapperImpl closed or not
      */
     private volatile boolean isClosed = false;
     /**
-     * List of threads
+     * Variable which represents are workers stopped or not. It is set by {@link #close()} after submitted calls
+     * have finished, so workers may still be started for calls which were submitted concurrently with it.
+     */
+    private volatile boolean isStopped = false;
+    /**
+     * Running workers
+     */
+    private final Set<Worker> workers;
+    /**
+     * Number of running workers, it is changed before a worker is started or retired
+     */
+    private final AtomicInteger workerCount;
+    /**
+     * Number of workers which wait for a call
      */
-    private final List<Thread> threads;
+    private final AtomicInteger idleWorkers;
     /**
-     * Queue of tasks
+     * Number of workers which are never retired
      */
-    private final Queue<Runnable> tasks;
+    private final int coreThreads;
+    /**
+     * Maximal number of workers
+     */
+    private final int maxThreads;
+    /**
+     * Time after which an idle worker above {@link #coreThreads} is retired
+     */
+    private final long keepAliveNanos;
+    /**
+     * Factory of worker threads
+     */
+    private final ThreadFactory threadFactory;
+    /**
+     * Busy and total time of retired workers
+     */
+    private final LongAdder retiredBusyNanos, retiredAliveNanos;
+    /**
+     * Calls which are submitted but not finished yet
+     */
+    private final Set<Batch<?, ?>> pending;
+    /**
+     * Lock-free queue of calls which have unclaimed arguments. Workers take turns of the calls in round-robin order,
+     * so a small call waits for one range of each running call instead of whole calls queued before it.
+     */
+    private final Deque<Batch<?, ?>> batches;
+    /**
+     * Number of calls in the queue. Workers block on it only while there are none.
+     */
+    private final Semaphore available;
+    /**
+     * Metrics of this mapper
+     */
+    private final ParallelMapperMetrics metrics;
+    /**
+     * Name under which metrics are registered in platform MBean server, null if they are not registered
+     */
+    private volatile ObjectName mBeanName;
 
     /**
      * Class constructor which generates threadCount threads and makes an empty queue.
@@ -29,96 +109,699 @@ public class ParallelMapperImpl implements ParallelMapper {
      */
 
     public ParallelMapperImpl(final int threadCount) {
-        this.threads = new ArrayList<>(threadCount);
-        this.tasks = new ArrayDeque<>();
+        this(threadCount, Thread::new);
+    }
 
-        for (int i = 0; i < threadCount; i++) {
-            Thread thread = new Thread(() -> {
-                try {
-                    while (!Thread.currentThread().isInterrupted()) {
-                        Runnable task;
-                        synchronized (tasks) {
-                            while (tasks.isEmpty() && !Thread.currentThread().isInterrupted()) {
-                                tasks.wait();
-                            }
-                            if (tasks.isEmpty()) {
-                                continue;
-                            }
-                            task = tasks.remove();
+    /**
+     * Class constructor which generates threadCount threads by threadFactory and makes an empty queue.
+     *
+     * @param threadCount   is a number of threads
+     * @param threadFactory factory of worker threads
+     */
+    public ParallelMapperImpl(final int threadCount, final ThreadFactory threadFactory) {
+        this(threadCount, threadCount, 0, TimeUnit.NANOSECONDS, threadFactory);
+    }
+
+    /**
+     * Class constructor of elastic mapper. It starts coreThreads threads, adds threads while there are more
+     * queued calls than idle threads up to maxThreads and retires threads above coreThreads which were idle
+     * for keepAlive.
+     *
+     * @param coreThreads   number of threads which are never retired
+     * @param maxThreads    maximal number of threads
+     * @param keepAlive     time after which an idle thread above coreThreads is retired
+     * @param unit          unit of keepAlive
+     * @param threadFactory factory of worker threads
+     */
+    public ParallelMapperImpl(final int coreThreads, final int maxThreads, final long keepAlive, final TimeUnit unit,
+                              final ThreadFactory threadFactory) {
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException(String.format("Number of threads must be at least one. %d were given", maxThreads));
+        }
+        if (coreThreads < 0 || coreThreads > maxThreads) {
+            throw new IllegalArgumentException(String.format(
+                    "Number of core threads must be from zero to %d. %d were given", maxThreads, coreThreads));
+        }
+        this.coreThreads = coreThreads;
+        this.maxThreads = maxThreads;
+        this.keepAliveNanos = unit.toNanos(keepAlive);
+        this.threadFactory = threadFactory;
+        this.workers = ConcurrentHashMap.newKeySet();
+        this.workerCount = new AtomicInteger();
+        this.idleWorkers = new AtomicInteger();
+        this.retiredBusyNanos = new LongAdder();
+        this.retiredAliveNanos = new LongAdder();
+        this.pending = ConcurrentHashMap.newKeySet();
+        this.batches = new ConcurrentLinkedDeque<>();
+        this.available = new Semaphore(0);
+        this.metrics = new ParallelMapperMetrics(
+                available::availablePermits,
+                () -> workers.stream().mapToLong(worker -> worker.busyNanos).toArray(),
+                () -> retiredBusyNanos.sum() + workers.stream().mapToLong(worker -> worker.busyNanos).sum(),
+                () -> retiredAliveNanos.sum() + workers.stream().mapToLong(Worker::aliveNanos).sum()
+        );
+
+        for (int i = 0; i < coreThreads; i++) {
+            workerCount.incrementAndGet();
+            startWorker();
+        }
+    }
+
+    /**
+     * Starts a worker unless the workers are stopped. {@link #workerCount} has to be incremented by the caller.
+     */
+    private void startWorker() {
+        Worker worker = new Worker();
+        workers.add(worker);
+        if (isStopped) {
+            workers.remove(worker);
+            workerCount.decrementAndGet();
+        } else {
+            worker.thread.start();
+        }
+    }
+
+    /**
+     * Starts one more worker if there are more queued calls than idle workers and the limit is not reached.
+     */
+    private void grow() {
+        while (idleWorkers.get() < available.availablePermits()) {
+            int count = workerCount.get();
+            if (count >= maxThreads) {
+                return;
+            }
+            if (workerCount.compareAndSet(count, count + 1)) {
+                startWorker();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Retires an idle worker if there are more than {@link #coreThreads} workers.
+     * A call may be queued after keep-alive has expired while its {@link #grow()} still counts this worker,
+     * so the queue is checked again once the worker is not counted.
+     *
+     * @return true if worker has to stop
+     */
+    private boolean retire() {
+        while (true) {
+            int count = workerCount.get();
+            if (count <= coreThreads) {
+                return false;
+            }
+            if (workerCount.compareAndSet(count, count - 1)) {
+                if (available.availablePermits() > 0 && unretire()) {
+                    return false;
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Counts a retired worker again if the limit is not reached.
+     *
+     * @return true if worker has to continue
+     */
+    private boolean unretire() {
+        while (true) {
+            int count = workerCount.get();
+            if (count >= maxThreads) {
+                // The limit is reached by other workers, which take the queued call
+                return false;
+            }
+            if (workerCount.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Worker thread together with time it has spent on ranges.
+     */
+    private final class Worker implements Runnable {
+        /**
+         * Thread of the worker
+         */
+        private final Thread thread;
+        /**
+         * Time when the worker was created
+         */
+        private final long startNanos = System.nanoTime();
+        /**
+         * Time spent on ranges. It is written only by the worker itself.
+         */
+        private volatile long busyNanos = 0;
+
+        Worker() {
+            this.thread = threadFactory.newThread(this);
+        }
+
+        @Override
+        public void run() {
+            boolean retired = false;
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    if (!acquire()) {
+                        if (retire()) {
+                            retired = true;
+                            return;
                         }
-                        task.run();
+                        continue;
                     }
-                } catch (InterruptedException ignored) {
-                } finally {
-                    Thread.currentThread().interrupt();
+                    long start = System.nanoTime();
+                    batches.removeFirst().runNext();
+                    busyNanos += System.nanoTime() - start;
+                }
+            } catch (InterruptedException ignored) {
+            } finally {
+                if (!retired) {
+                    // Interrupt flag may be left set by function and anything may escape a range,
+                    // so the worker is replaced if calls are still queued
+                    workerCount.decrementAndGet();
+                    grow();
+                }
+                workers.remove(this);
+                retiredBusyNanos.add(busyNanos);
+                retiredAliveNanos.add(aliveNanos());
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Waits for a queued call. Only workers above {@link #coreThreads} may give up after keep-alive.
+         *
+         * @return true if a call was acquired
+         * @throws InterruptedException if the worker was interrupted
+         */
+        private boolean acquire() throws InterruptedException {
+            idleWorkers.incrementAndGet();
+            try {
+                if (workerCount.get() > coreThreads) {
+                    return available.tryAcquire(keepAliveNanos, TimeUnit.NANOSECONDS);
+                }
+                available.acquire();
+                return true;
+            } finally {
+                idleWorkers.decrementAndGet();
+            }
+        }
+
+        /**
+         * Returns time since the worker was created.
+         *
+         * @return time since the worker was created
+         */
+        long aliveNanos() {
+            return System.nanoTime() - startNanos;
+        }
+    }
+
+    /**
+     * Creates mapper with concurrency virtual worker threads. It is meant for functions which block on I/O:
+     * blocked workers don't hold platform threads, so concurrency may be much larger than number of cores.
+     * Virtual threads are run by the JDK scheduler, its number of carrier threads is configured
+     * by {@code jdk.virtualThreadScheduler.parallelism} system property.
+     *
+     * @param concurrency maximal number of arguments which are processed simultaneously
+     * @return new mapper
+     */
+    public static ParallelMapperImpl ofVirtual(final int concurrency) {
+        return new ParallelMapperImpl(concurrency, Thread.ofVirtual().name("mapper-", 0).factory());
+    }
+
+    /**
+     * One call of the mapper: function, its arguments and consumer of results.
+     * Arguments are split into ranges which are claimed by workers one by one.
+     *
+     * @param <T> type of arguments
+     * @param <R> type of results
+     */
+    private final class Batch<T, R> {
+        /**
+         * Function to apply
+         */
+        private final Function<? super T, ? extends R> function;
+        /**
+         * Arguments of function
+         */
+        private final List<? extends T> values;
+        /**
+         * Consumer of each result and its index
+         */
+        private final ObjIntConsumer<? super R> consumer;
+        /**
+         * Number of consecutive ranges claimed in one turn
+         */
+        private final int priority;
+        /**
+         * Number of arguments which are not processed yet
+         */
+        private final AtomicInteger remaining;
+        /**
+         * Future which is completed when all arguments are processed
+         */
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+        /**
+         * The first exception thrown by function, exceptions of other arguments are added to it as suppressed
+         */
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        /**
+         * Moving average of time spent by function on one argument, 0 if nothing has been observed yet
+         */
+        private volatile long elementNanos = 0;
+        /**
+         * Time of submission
+         */
+        private final long submitNanos = System.nanoTime();
+        /**
+         * JFR event of the call
+         */
+        private final MapEvent event = new MapEvent();
+        /**
+         * First unclaimed index and ranges left in current turn.
+         * They are changed only by the worker which has taken the batch out of the queue.
+         */
+        private int next, turns;
+
+        Batch(final Function<? super T, ? extends R> function, final List<? extends T> args,
+              final ObjIntConsumer<? super R> consumer, final int priority) {
+            if (priority < 1) {
+                throw new IllegalArgumentException(String.format("Priority must be at least one. %d were given", priority));
+            }
+            this.function = function;
+            this.values = args instanceof RandomAccess ? args : new ArrayList<>(args);
+            this.consumer = consumer;
+            this.priority = priority;
+            this.remaining = new AtomicInteger(values.size());
+            this.turns = priority;
+            // Cancelled or otherwise completed from outside, remaining arguments are skipped
+            completion.whenComplete((ignored, e) -> {
+                if (e != null) {
+                    failure.compareAndSet(null, e);
                 }
             });
-            thread.start();
-            threads.add(thread);
+        }
+
+        /**
+         * Queues the batch.
+         *
+         * @return future which is completed when all arguments are processed
+         */
+        CompletableFuture<Void> submit() {
+            metrics.callSubmitted(values.size());
+            event.begin();
+            if (values.isEmpty()) {
+                finish();
+            } else {
+                pending.add(this);
+                if (isClosed) {
+                    // close() might not see this call, so it is not queued
+                    pending.remove(this);
+                    completion.completeExceptionally(new IllegalStateException("ParallelMapper has already been closed."));
+                    throw new IllegalStateException("ParallelMapper has already been closed.");
+                }
+                batches.offerLast(this);
+                available.release();
+                grow();
+            }
+            return completion;
+        }
+
+        /**
+         * Claims next range, puts the batch back to the queue if it has more arguments and runs the range.
+         * Batch is put to the head of the queue while its turn lasts, to the tail after that.
+         * When the batch has failed, all its remaining arguments are claimed and skipped at once.
+         */
+        void runNext() {
+            final int from = next;
+            if (from == 0) {
+                metrics.callStarted(System.nanoTime() - submitNanos);
+            }
+            final int to = failure.get() == null ? Math.min(from + rangeSize(), values.size()) : values.size();
+            next = to;
+            if (to < values.size()) {
+                if (--turns > 0) {
+                    batches.offerFirst(this);
+                } else {
+                    turns = priority;
+                    batches.offerLast(this);
+                }
+                available.release();
+                grow();
+            }
+            run(from, to);
+        }
+
+        /**
+         * Applies function to range of arguments until the batch fails. Only the last finished range
+         * completes the batch, so no range of a failed batch is running when its caller gets the exception.
+         *
+         * @param from first index of range
+         * @param to   index after the last one of range
+         */
+        private void run(final int from, final int to) {
+            RangeEvent rangeEvent = new RangeEvent();
+            rangeEvent.begin();
+            long start = System.nanoTime();
+            try {
+                for (int i = from; i < to && failure.get() == null; i++) {
+                    consumer.accept(function.apply(values.get(i)), i);
+                }
+                observe(System.nanoTime() - start, to - from);
+            } catch (RuntimeException | Error e) {
+                if (!failure.compareAndSet(null, e) && failure.get() != e) {
+                    failure.get().addSuppressed(e);
+                }
+            } finally {
+                metrics.rangeFinished(to - from, System.nanoTime() - start);
+                rangeEvent.commit(from, to);
+                if (remaining.addAndGet(from - to) == 0) {
+                    finish();
+                }
+            }
+        }
+
+        /**
+         * Records metrics of the call and completes its future.
+         */
+        private void finish() {
+            Throwable e = failure.get();
+            metrics.callFinished(e != null, System.nanoTime() - submitNanos);
+            event.commit(values.size(), priority, e != null);
+            pending.remove(this);
+            if (e == null) {
+                completion.complete(null);
+            } else {
+                completion.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Returns number of arguments in next range. Until the cost of function is observed ranges are single
+         * arguments, after that they take about {@link #TARGET_RANGE_NANOS}, but there are
+         * at least {@link #MIN_RANGES_PER_THREAD} ranges per worker.
+         *
+         * @return number of arguments in next range
+         */
+        private int rangeSize() {
+            int maxRangeSize = Math.max(1, values.size() / (Math.max(1, workerCount.get()) * MIN_RANGES_PER_THREAD));
+            long cost = elementNanos;
+            return cost == 0 ? 1 : (int) Math.max(1, Math.min(maxRangeSize, TARGET_RANGE_NANOS / cost));
+        }
+
+        /**
+         * Updates moving average of time spent on one argument.
+         *
+         * @param nanos    time spent on range
+         * @param elements number of arguments in range
+         */
+        private void observe(final long nanos, final int elements) {
+            long sample = Math.max(1, nanos / elements);
+            long cost = elementNanos;
+            // Races between workers only lose some samples
+            elementNanos = cost == 0 ? sample : (cost * 7 + sample) / 8;
         }
     }
 
     @Override
     public <T, R> List<R> map(Function<? super T, ? extends R> f, List<? extends T> args) throws InterruptedException {
+        return map(f, args, DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Same as {@link #map(Function, List)} with given priority.
+     * If function throws, remaining arguments are skipped and the first exception is rethrown
+     * with exceptions of arguments which were being processed at the same time as suppressed.
+     *
+     * @param f        function to apply
+     * @param args     arguments of function
+     * @param priority number of ranges of this call which are run in one round-robin turn
+     * @param <T>      type of arguments
+     * @param <R>      type of results
+     * @return mutable list of results in order of arguments
+     * @throws InterruptedException if current thread was interrupted while waiting for results,
+     *                              remaining arguments are skipped then
+     */
+    public <T, R> List<R> map(Function<? super T, ? extends R> f, List<? extends T> args, int priority) throws InterruptedException {
+        final CompletableFuture<List<R>> future = mapAsync(f, args, priority);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Same as {@link #map(Function, List)} but doesn't block the caller.
+     *
+     * @param f    function to apply
+     * @param args arguments of function
+     * @param <T>  type of arguments
+     * @param <R>  type of results
+     * @return future of list of results in order of arguments
+     */
+    public <T, R> CompletableFuture<List<R>> mapAsync(Function<? super T, ? extends R> f, List<? extends T> args) {
+        return mapAsync(f, args, DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Same as {@link #map(Function, List, int)} but doesn't block the caller.
+     * Cancelling the returned future skips arguments which are not processed yet.
+     *
+     * @param f        function to apply
+     * @param args     arguments of function
+     * @param priority number of ranges of this call which are run in one round-robin turn
+     * @param <T>      type of arguments
+     * @param <R>      type of results
+     * @return future of mutable list of results in order of arguments
+     */
+    @SuppressWarnings("unchecked")
+    public <T, R> CompletableFuture<List<R>> mapAsync(Function<? super T, ? extends R> f, List<? extends T> args, int priority) {
+        final Object[] results = new Object[args.size()];
+        final CompletableFuture<Void> completion = mapEach(f, args, (result, index) -> results[index] = result, priority);
+        final CompletableFuture<List<R>> future = completion.thenApply(ignored -> new ArrayList<>((List<R>) Arrays.asList(results)));
+        future.whenComplete((ignored, e) -> {
+            if (e instanceof CancellationException) {
+                completion.cancel(false);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Applies function to each argument and passes each result to consumer as soon as it is computed.
+     * Consumer is called by worker threads concurrently and in no particular order.
+     * Cancelling the returned future skips arguments which are not processed yet.
+     *
+     * @param f        function to apply
+     * @param args     arguments of function
+     * @param consumer consumer of result and index of its argument
+     * @param <T>      type of arguments
+     * @param <R>      type of results
+     * @return future which is completed after the last result is consumed
+     */
+    public <T, R> CompletableFuture<Void> mapEach(Function<? super T, ? extends R> f, List<? extends T> args,
+                                                  ObjIntConsumer<? super R> consumer) {
+        return mapEach(f, args, consumer, DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Same as {@link #mapEach(Function, List, ObjIntConsumer)} with given priority.
+     *
+     * @param f        function to apply
+     * @param args     arguments of function
+     * @param consumer consumer of result and index of its argument
+     * @param priority number of ranges of this call which are run in one round-robin turn
+     * @param <T>      type of arguments
+     * @param <R>      type of results
+     * @return future which is completed after the last result is consumed
+     * or exceptionally with the first exception thrown by function
+     */
+    public <T, R> CompletableFuture<Void> mapEach(Function<? super T, ? extends R> f, List<? extends T> args,
+                                                  ObjIntConsumer<? super R> consumer, int priority) {
         if (isClosed) {
             throw new IllegalStateException("ParallelMapper has already been closed.");
         }
-        List<R> results = new ArrayList<>(Collections.nCopies(args.size(), null));
-        int remainingTasks = args.size();
-        final int[] completedTasks = {0};
+        return new Batch<T, R>(f, args, consumer, priority).submit();
+    }
 
-        final RuntimeException[] exception = new RuntimeException[1];
+    /**
+     * Performs mutable reduction of source by collector on the workers of this mapper, like a parallel stream
+     * does on the common {@link java.util.concurrent.ForkJoinPool}. Source is split by
+     * {@link Spliterator#trySplit()} into about {@link #MIN_RANGES_PER_THREAD} pieces per worker,
+     * each piece is accumulated into its own container as an argument of one call of this mapper,
+     * and containers are combined in encounter order.
+     *
+     * @param source    source of values
+     * @param collector collector to accumulate values with
+     * @param <T>       type of values
+     * @param <A>       type of intermediate container
+     * @param <R>       type of result
+     * @return result of collector
+     * @throws InterruptedException if current thread was interrupted while waiting for results
+     */
+    public <T, A, R> R collect(Spliterator<? extends T> source, Collector<? super T, A, R> collector) throws InterruptedException {
+        List<Spliterator<? extends T>> pieces = new ArrayList<>();
+        split(source, Math.max(1, workerCount.get()) * MIN_RANGES_PER_THREAD, pieces);
 
-        List<Supplier<R>> tasksList = args.stream().map(arg -> (Supplier<R>) () -> {
-                    R result = null;
-                    try {
-                        result = f.apply(arg);
-                    } catch (RuntimeException e) {
-                        exception[0] = e;
-                    }
-                    return result;
-                }
-        ).toList();
-
-        if (exception[0] != null) {
-            throw exception[0];
-        }
-
-        for (int i = 0; i < tasksList.size(); ++i) {
-            var task = tasksList.get(i);
-            synchronized (tasks) {
-                int finalI = i;
-                tasks.add(() -> {
-                    R result = task.get();
-                    synchronized (completedTasks) {
-                        results.set(finalI, result);
-                        completedTasks[0]++;
-                        completedTasks.notifyAll();
-                    }
-                });
-                tasks.notify();
-            }
+        BiConsumer<A, ? super T> accumulator = collector.accumulator();
+        List<A> containers = map(piece -> {
+            A container = collector.supplier().get();
+            piece.forEachRemaining(value -> accumulator.accept(container, value));
+            return container;
+        }, pieces);
+
+        A result = collector.supplier().get();
+        for (A container : containers) {
+            result = collector.combiner().apply(result, container);
         }
+        return collector.finisher().apply(result);
+    }
+
+    /**
+     * Same as {@link #collect(Spliterator, Collector)} on spliterator of collection.
+     *
+     * @param source    source of values
+     * @param collector collector to accumulate values with
+     * @param <T>       type of values
+     * @param <A>       type of intermediate container
+     * @param <R>       type of result
+     * @return result of collector
+     * @throws InterruptedException if current thread was interrupted while waiting for results
+     */
+    public <T, A, R> R collect(Collection<? extends T> source, Collector<? super T, A, R> collector) throws InterruptedException {
+        return collect(source.spliterator(), collector);
+    }
 
-        synchronized (completedTasks) {
-            while (completedTasks[0] < remainingTasks) {
-                completedTasks.wait();
+    /**
+     * Returns collector which applies function to the elements of a stream on this mapper
+     * and passes results to downstream collector in encounter order. Elements are gathered by the stream
+     * itself, so the stream may be sequential while function runs in parallel on the workers of this mapper.
+     *
+     * @param f          function to apply
+     * @param downstream collector of results
+     * @param <T>        type of elements
+     * @param <U>        type of results of function
+     * @param <R>        type of result of downstream collector
+     * @return collector which maps elements on this mapper
+     */
+    public <T, U, R> Collector<T, ?, R> mapping(Function<? super T, ? extends U> f, Collector<? super U, ?, R> downstream) {
+        return Collector.<T, List<T>, R>of(ArrayList::new, List::add, (left, right) -> {
+            left.addAll(right);
+            return left;
+        }, values -> {
+            try {
+                return map(f, values).stream().collect(downstream);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while mapping elements", e);
+            }
+        });
+    }
+
+    /**
+     * Splits spliterator into at most given number of pieces in encounter order.
+     *
+     * @param source spliterator to split
+     * @param count  maximal number of pieces
+     * @param pieces list to add pieces to
+     * @param <T>    type of values
+     */
+    private static <T> void split(Spliterator<? extends T> source, int count, List<Spliterator<? extends T>> pieces) {
+        if (count > 1) {
+            Spliterator<? extends T> prefix = source.trySplit();
+            if (prefix != null) {
+                split(prefix, count / 2, pieces);
+                split(source, count - count / 2, pieces);
+                return;
             }
         }
+        pieces.add(source);
+    }
 
-        return results;
+    /**
+     * Returns metrics of this mapper.
+     *
+     * @return metrics of this mapper
+     */
+    public ParallelMapperMetrics metrics() {
+        return metrics;
     }
 
+    /**
+     * Registers metrics of this mapper in platform MBean server. They are unregistered by {@link #close()}.
+     *
+     * @param name value of {@code name} key of the MBean
+     * @return name of registered MBean
+     * @throws JMException if MBean can't be registered
+     */
+    public synchronized ObjectName registerMBean(final String name) throws JMException {
+        if (mBeanName != null) {
+            throw new IllegalStateException("Metrics are already registered as " + mBeanName);
+        }
+        ObjectName objectName = new ObjectName(String.format("%s:type=%s,name=%s",
+                getClass().getPackageName(), getClass().getSimpleName(), ObjectName.quote(name)));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, objectName);
+        mBeanName = objectName;
+        return objectName;
+    }
+
+    /**
+     * Stops accepting calls, waits for all submitted calls to finish and stops the workers.
+     * If the current thread is interrupted while waiting, unfinished calls are failed
+     * and their workers are interrupted.
+     */
     @Override
     public void close() {
         isClosed = true;
-        threads.forEach(Thread::interrupt);
-        threads.forEach(thread -> {
-                    try {
-                        thread.join();
-                    } catch (InterruptedException ignored) {
-                    }
+        boolean interrupted = false;
+        try {
+            CompletableFuture.allOf(pending.stream().map(batch -> batch.completion).toArray(CompletableFuture[]::new)).get();
+        } catch (ExecutionException ignored) {
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        isStopped = true;
+        workers.forEach(worker -> worker.thread.interrupt());
+        for (Worker worker : workers) {
+            while (true) {
+                try {
+                    worker.thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
                 }
-        );
+            }
+        }
+        pending.forEach(batch -> batch.completion.completeExceptionally(
+                new IllegalStateException("ParallelMapper has been closed.")));
+        unregisterMBean();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Unregisters metrics from platform MBean server if they are registered.
+     */
+    private synchronized void unregisterMBean() {
+        if (mBeanName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(mBeanName);
+            } catch (JMException ignored) {
+            }
+            mBeanName = null;
+        }
     }
 }
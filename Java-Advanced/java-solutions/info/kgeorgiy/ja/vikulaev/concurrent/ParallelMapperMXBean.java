@@ -0,0 +1,105 @@
+package info.kgeorgiy.ja.vikulaev.concurrent;
+
+/**
+ * Management interface of {@link ParallelMapperImpl}. Times are in nanoseconds, percentiles are upper bounds
+ * of power-of-two buckets of {@link LatencyHistogram}.
+ */
+public interface ParallelMapperMXBean {
+    /**
+     * Returns number of running worker threads.
+     *
+     * @return number of worker threads
+     */
+    int getWorkerCount();
+
+    /**
+     * Returns number of calls which wait in the queue for a worker to take their next range.
+     *
+     * @return length of the queue
+     */
+    int getQueueLength();
+
+    /**
+     * Returns number of submitted calls.
+     *
+     * @return number of submitted calls
+     */
+    long getCallsSubmitted();
+
+    /**
+     * Returns number of calls which completed normally.
+     *
+     * @return number of completed calls
+     */
+    long getCallsCompleted();
+
+    /**
+     * Returns number of calls which failed.
+     *
+     * @return number of failed calls
+     */
+    long getCallsFailed();
+
+    /**
+     * Returns number of arguments of all submitted calls.
+     *
+     * @return number of submitted arguments
+     */
+    long getArgumentsSubmitted();
+
+    /**
+     * Returns number of arguments which are processed or skipped after failure.
+     *
+     * @return number of finished arguments
+     */
+    long getArgumentsFinished();
+
+    /**
+     * Returns number of ranges which were run by workers.
+     *
+     * @return number of ranges
+     */
+    long getRangesCompleted();
+
+    /**
+     * Returns time spent by each running worker on ranges.
+     *
+     * @return busy time of each worker
+     */
+    long[] getWorkerBusyNanos();
+
+    /**
+     * Returns share of time the workers, including retired ones, spent on ranges while they were running.
+     *
+     * @return utilization from 0 to 1
+     */
+    double getUtilization();
+
+    /**
+     * Returns median of time from submission of a call to its completion.
+     *
+     * @return median latency of calls
+     */
+    long getCallLatencyP50Nanos();
+
+    /**
+     * Returns 99th percentile of time from submission of a call to its completion.
+     *
+     * @return 99th percentile of latency of calls
+     */
+    long getCallLatencyP99Nanos();
+
+    /**
+     * Returns 99th percentile of time from submission of a call to the start of its first range.
+     *
+     * @return 99th percentile of queue wait
+     */
+    long getQueueWaitP99Nanos();
+
+    /**
+     * Returns 99th percentile of time of one range.
+     *
+     * @return 99th percentile of range latency
+     */
+    long getRangeLatencyP99Nanos();
+}
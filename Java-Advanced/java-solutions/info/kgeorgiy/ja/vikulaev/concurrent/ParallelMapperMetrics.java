@@ -0,0 +1,172 @@
+package info.kgeorgiy.ja.vikulaev.concurrent;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Metrics of one {@link ParallelMapperImpl}. Counters are {@link LongAdder}s and latencies are
+ * {@link LatencyHistogram}s, so workers update them without contention.
+ */
+public final class ParallelMapperMetrics implements ParallelMapperMXBean {
+    /**
+     * Counters of calls
+     */
+    private final LongAdder callsSubmitted = new LongAdder(), callsCompleted = new LongAdder(), callsFailed = new LongAdder();
+    /**
+     * Counters of arguments and ranges
+     */
+    private final LongAdder argumentsSubmitted = new LongAdder(), argumentsFinished = new LongAdder(),
+            rangesCompleted = new LongAdder();
+    /**
+     * Time from submission of a call to its completion
+     */
+    private final LatencyHistogram callLatency = new LatencyHistogram();
+    /**
+     * Time from submission of a call to the start of its first range
+     */
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    /**
+     * Time of one range
+     */
+    private final LatencyHistogram rangeLatency = new LatencyHistogram();
+    /**
+     * Source of length of the queue
+     */
+    private final IntSupplier queueLength;
+    /**
+     * Source of busy time of each running worker
+     */
+    private final Supplier<long[]> workerBusyNanos;
+    /**
+     * Sources of busy and total time of all workers including retired ones
+     */
+    private final LongSupplier busyNanos, aliveNanos;
+
+    ParallelMapperMetrics(final IntSupplier queueLength, final Supplier<long[]> workerBusyNanos,
+                          final LongSupplier busyNanos, final LongSupplier aliveNanos) {
+        this.queueLength = queueLength;
+        this.workerBusyNanos = workerBusyNanos;
+        this.busyNanos = busyNanos;
+        this.aliveNanos = aliveNanos;
+    }
+
+    void callSubmitted(final int arguments) {
+        callsSubmitted.increment();
+        argumentsSubmitted.add(arguments);
+    }
+
+    void callStarted(final long waitNanos) {
+        queueWait.record(waitNanos);
+    }
+
+    void rangeFinished(final int arguments, final long nanos) {
+        rangesCompleted.increment();
+        argumentsFinished.add(arguments);
+        rangeLatency.record(nanos);
+    }
+
+    void callFinished(final boolean failed, final long nanos) {
+        (failed ? callsFailed : callsCompleted).increment();
+        callLatency.record(nanos);
+    }
+
+    /**
+     * Returns histogram of time from submission of a call to its completion.
+     *
+     * @return histogram of latency of calls
+     */
+    public LatencyHistogram callLatency() {
+        return callLatency;
+    }
+
+    /**
+     * Returns histogram of time from submission of a call to the start of its first range.
+     *
+     * @return histogram of queue wait
+     */
+    public LatencyHistogram queueWait() {
+        return queueWait;
+    }
+
+    /**
+     * Returns histogram of time of one range.
+     *
+     * @return histogram of latency of ranges
+     */
+    public LatencyHistogram rangeLatency() {
+        return rangeLatency;
+    }
+
+    @Override
+    public int getWorkerCount() {
+        return workerBusyNanos.get().length;
+    }
+
+    @Override
+    public int getQueueLength() {
+        return queueLength.getAsInt();
+    }
+
+    @Override
+    public long getCallsSubmitted() {
+        return callsSubmitted.sum();
+    }
+
+    @Override
+    public long getCallsCompleted() {
+        return callsCompleted.sum();
+    }
+
+    @Override
+    public long getCallsFailed() {
+        return callsFailed.sum();
+    }
+
+    @Override
+    public long getArgumentsSubmitted() {
+        return argumentsSubmitted.sum();
+    }
+
+    @Override
+    public long getArgumentsFinished() {
+        return argumentsFinished.sum();
+    }
+
+    @Override
+    public long getRangesCompleted() {
+        return rangesCompleted.sum();
+    }
+
+    @Override
+    public long[] getWorkerBusyNanos() {
+        return workerBusyNanos.get();
+    }
+
+    @Override
+    public double getUtilization() {
+        long alive = aliveNanos.getAsLong();
+        return alive == 0 ? 0 : (double) busyNanos.getAsLong() / alive;
+    }
+
+    @Override
+    public long getCallLatencyP50Nanos() {
+        return callLatency.percentile(50);
+    }
+
+    @Override
+    public long getCallLatencyP99Nanos() {
+        return callLatency.percentile(99);
+    }
+
+    @Override
+    public long getQueueWaitP99Nanos() {
+        return queueWait.percentile(99);
+    }
+
+    @Override
+    public long getRangeLatencyP99Nanos() {
+        return rangeLatency.percentile(99);
+    }
+}
@@ -0,0 +1,36 @@
+package info.kgeorgiy.ja.vikulaev.concurrent;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of one range of arguments run by a worker of {@link ParallelMapperImpl}.
+ */
+@Name("info.kgeorgiy.ja.vikulaev.concurrent.Range")
+@Label("Parallel Map Range")
+@Category("Parallel Mapper")
+@Description("Range of arguments of one call run by a worker")
+class RangeEvent extends Event {
+    @Label("From")
+    int from;
+
+    @Label("To")
+    int to;
+
+    /**
+     * Fills fields and commits the event if it is enabled and long enough.
+     *
+     * @param from first index of range
+     * @param to   index after the last one of range
+     */
+    void commit(final int from, final int to) {
+        if (shouldCommit()) {
+            this.from = from;
+            this.to = to;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package info.kgeorgiy.ja.vikulaev.concurrent.Tests;
+
+import info.kgeorgiy.ja.vikulaev.concurrent.ParallelMapperImpl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelMapperTests {
+
+    public static final int THREADS = 4;
+    public static final int ARGUMENTS = 10_000;
+    public static final long TIMEOUT_MILLIS = 10_000;
+
+    private ParallelMapperImpl mapper;
+    private List<Integer> arguments;
+
+    @BeforeEach
+    public void setup() {
+        mapper = new ParallelMapperImpl(THREADS);
+        arguments = IntStream.range(0, ARGUMENTS).boxed().toList();
+    }
+
+    @AfterEach
+    public void teardown() {
+        mapper.close();
+    }
+
+    @Test
+    public void test_0_abortOnFailure() {
+        RuntimeException failure = new IllegalArgumentException("failure");
+        AtomicInteger calls = new AtomicInteger();
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> mapper.map(x -> {
+            calls.incrementAndGet();
+            if (x == 10) {
+                throw failure;
+            }
+            LockSupport.parkNanos(100_000);
+            return x;
+        }, arguments));
+        assertSame(failure, thrown);
+        assertTrue(calls.get() < ARGUMENTS, "Arguments after failure have to be skipped");
+    }
+
+    @Test
+    public void test_1_abortOnError() {
+        Error failure = new AssertionError("failure");
+        Error thrown = assertThrows(Error.class, () -> mapper.map(x -> {
+            if (x % 1000 == 0) {
+                throw failure;
+            }
+            return x;
+        }, arguments));
+        assertSame(failure, thrown);
+    }
+
+    @Test
+    public void test_2_asyncFailure() {
+        RuntimeException failure = new IllegalStateException("failure");
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> mapper.mapAsync(x -> {
+            if (x == ARGUMENTS - 1) {
+                throw failure;
+            }
+            return x;
+        }, arguments).get());
+        assertSame(failure, thrown.getCause());
+    }
+
+    @Test
+    public void test_3_usableAfterFailure() throws InterruptedException {
+        assertThrows(ArithmeticException.class, () -> mapper.map(x -> 1 / (x - 5), arguments));
+        assertEquals(arguments.stream().map(x -> x * 2).toList(), mapper.map(x -> x * 2, arguments));
+    }
+
+    @Test
+    public void test_4_closeDrainsPendingCalls() throws Exception {
+        List<CompletableFuture<List<Integer>>> futures = new ArrayList<>();
+        for (int i = 0; i < 2 * THREADS; i++) {
+            futures.add(mapper.mapAsync(x -> {
+                LockSupport.parkNanos(10_000);
+                return x + 1;
+            }, arguments.subList(0, 1000)));
+        }
+        mapper.close();
+        List<Integer> expected = arguments.subList(0, 1000).stream().map(x -> x + 1).toList();
+        for (CompletableFuture<List<Integer>> future : futures) {
+            assertTrue(future.isDone(), "Calls submitted before close have to be finished by close");
+            assertEquals(expected, future.get());
+        }
+        assertThrows(IllegalStateException.class, () -> mapper.map(x -> x, arguments));
+    }
+
+    @Test
+    public void test_5_elasticGrowsAndShrinks() throws Exception {
+        try (ParallelMapperImpl elastic = new ParallelMapperImpl(1, THREADS, 50, TimeUnit.MILLISECONDS, Thread::new)) {
+            IntSupplier workers = () -> elastic.metrics().getWorkerCount();
+            assertEquals(1, workers.getAsInt());
+
+            CountDownLatch started = new CountDownLatch(THREADS);
+            CountDownLatch release = new CountDownLatch(1);
+            List<CompletableFuture<List<Integer>>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(elastic.mapAsync(x -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return x;
+                }, List.of(i)));
+            }
+            assertTrue(started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS), "Blocked calls have to get their own workers");
+            assertEquals(THREADS, workers.getAsInt());
+
+            release.countDown();
+            for (int i = 0; i < THREADS; i++) {
+                assertEquals(List.of(i), futures.get(i).get());
+            }
+            awaitWorkers(workers, 1);
+            assertEquals(List.of(2, 4), elastic.map(x -> x * 2, List.of(1, 2)));
+        }
+    }
+
+    private static void awaitWorkers(IntSupplier workers, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (workers.getAsInt() != expected) {
+            assertTrue(System.currentTimeMillis() < deadline,
+                    String.format("Expected %d workers, %d are alive", expected, workers.getAsInt()));
+            Thread.sleep(10);
+        }
+    }
+}
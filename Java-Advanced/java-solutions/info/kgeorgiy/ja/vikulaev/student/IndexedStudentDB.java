@@ -0,0 +1,151 @@
+package info.kgeorgiy.ja.vikulaev.student;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.util.*;
+
+/**
+ * {@link StudentDB} over its own roster of students, which keeps hash indexes on first name, last name and group
+ * and students sorted by name and by id. Indexes are updated on {@link #add} and {@link #remove} in {@code O(log n)},
+ * so queries on {@link #students()} take time proportional to size of the result instead of full scan and sort.
+ * <p>
+ * Indexes are used only if the query is given the very collection returned by {@link #students()}:
+ * {@code db.findStudentsByGroup(db.students(), group)} is answered by index, while the same query
+ * on a copy of roster or on any other collection is answered by {@link StudentDB} with full scan.
+ * <p>
+ * Roster holds student objects by identity, like a list does: students which are equal by all their fields
+ * are distinct entries of roster, only the same object can't be added twice.
+ */
+public class IndexedStudentDB extends StudentDB {
+    // Order of addition of each student of roster
+    private final Map<Student, Long> sequence = new IdentityHashMap<>();
+    private long added;
+    // Order by name which also distinguishes students who are equal by all their fields.
+    // Students which are not in roster go before equal ones, so lookups of them miss
+    private final Comparator<Student> rosterOrder = STUDENT_COMPARATOR
+            .thenComparing(Student::getGroup)
+            .thenComparingLong(student -> sequence.getOrDefault(student, -1L));
+
+    private final NavigableSet<Student> byName = new TreeSet<>(rosterOrder);
+    // Students with the same id are in order of roster, same as stable sort of roster by id gives
+    private final NavigableSet<Student> byId = new TreeSet<>(Comparator.<Student>naturalOrder().thenComparing(rosterOrder));
+    private final Map<String, NavigableSet<Student>> byFirstName = new HashMap<>();
+    private final Map<String, NavigableSet<Student>> byLastName = new HashMap<>();
+    private final Map<GroupName, NavigableSet<Student>> byGroup = new HashMap<>();
+    private final Collection<Student> students = Collections.unmodifiableCollection(byName);
+
+    public IndexedStudentDB() {
+    }
+
+    public IndexedStudentDB(Collection<Student> students) {
+        for (Student student : students) {
+            insert(student);
+        }
+    }
+
+    /**
+     * Returns roster of this database. Queries on it use indexes.
+     *
+     * @return unmodifiable view of students sorted by name
+     */
+    public Collection<Student> students() {
+        return students;
+    }
+
+    /**
+     * Adds student to roster.
+     *
+     * @param student student to add
+     * @return true if this student object was not in roster
+     */
+    public boolean add(Student student) {
+        return insert(student);
+    }
+
+    private boolean insert(Student student) {
+        if (sequence.putIfAbsent(student, added) != null) {
+            return false;
+        }
+        added++;
+        byName.add(student);
+        byId.add(student);
+        index(byFirstName, student.getFirstName()).add(student);
+        index(byLastName, student.getLastName()).add(student);
+        index(byGroup, student.getGroup()).add(student);
+        return true;
+    }
+
+    /**
+     * Removes student from roster.
+     *
+     * @param student student to remove
+     * @return true if this student object was in roster
+     */
+    public boolean remove(Student student) {
+        if (!sequence.containsKey(student)) {
+            return false;
+        }
+        // Sets are ordered by sequence, so student leaves it last
+        byName.remove(student);
+        byId.remove(student);
+        unindex(byFirstName, student.getFirstName(), student);
+        unindex(byLastName, student.getLastName(), student);
+        unindex(byGroup, student.getGroup(), student);
+        sequence.remove(student);
+        return true;
+    }
+
+    @Override
+    public List<Student> sortStudentsById(Collection<Student> students) {
+        return students == this.students ? new ArrayList<>(byId) : super.sortStudentsById(students);
+    }
+
+    @Override
+    public List<Student> sortStudentsByName(Collection<Student> students) {
+        return students == this.students ? new ArrayList<>(byName) : super.sortStudentsByName(students);
+    }
+
+    @Override
+    public List<Student> findStudentsByFirstName(Collection<Student> students, String name) {
+        return students == this.students ? find(byFirstName, name) : super.findStudentsByFirstName(students, name);
+    }
+
+    @Override
+    public List<Student> findStudentsByLastName(Collection<Student> students, String name) {
+        return students == this.students ? find(byLastName, name) : super.findStudentsByLastName(students, name);
+    }
+
+    @Override
+    public List<Student> findStudentsByGroup(Collection<Student> students, GroupName group) {
+        return students == this.students ? find(byGroup, group) : super.findStudentsByGroup(students, group);
+    }
+
+    @Override
+    public Map<String, String> findStudentNamesByGroup(Collection<Student> students, GroupName group) {
+        if (students != this.students) {
+            return super.findStudentNamesByGroup(students, group);
+        }
+        Map<String, String> result = new HashMap<>();
+        for (Student student : byGroup.getOrDefault(group, Collections.emptyNavigableSet())) {
+            result.merge(student.getLastName(), student.getFirstName(), (a, b) -> a.compareTo(b) <= 0 ? a : b);
+        }
+        return result;
+    }
+
+    private <K> NavigableSet<Student> index(Map<K, NavigableSet<Student>> index, K key) {
+        return index.computeIfAbsent(key, k -> new TreeSet<>(rosterOrder));
+    }
+
+    private static <K> void unindex(Map<K, NavigableSet<Student>> index, K key, Student student) {
+        NavigableSet<Student> students = index.get(key);
+        students.remove(student);
+        if (students.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static <K> List<Student> find(Map<K, NavigableSet<Student>> index, K key) {
+        return new ArrayList<>(index.getOrDefault(key, Collections.emptyNavigableSet()));
+    }
+}
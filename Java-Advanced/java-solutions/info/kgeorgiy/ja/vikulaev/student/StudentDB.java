@@ -102,7 +102,7 @@ public class StudentDB implements StudentQuery {
 
     private static final Function<Student, String> GET_FULL_NAME =
             (final Student student) -> String.format("%s %s", student.getFirstName(), student.getLastName());
-    private static final Comparator<Student> STUDENT_COMPARATOR =
+    static final Comparator<Student> STUDENT_COMPARATOR =
             Comparator.comparing(Student::getLastName, Comparator.reverseOrder())
                     .thenComparing(Student::getFirstName, Comparator.reverseOrder())
                     .thenComparing(Student::getId);
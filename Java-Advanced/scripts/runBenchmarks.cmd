@@ -0,0 +1,13 @@
+:NOTE: benchmarks are compiled together with sources of the course, so its repository has to be cloned to source_dir
+set source_dir=../java-advanced-2023/
+
+if not exist "%source_dir%modules" (
+    echo Repository of the course is not found in %source_dir%
+    PAUSE
+    exit /b 1
+)
+
+call mvn -f ../benchmarks/pom.xml -q package || (PAUSE & exit /b 1)
+java -jar ../benchmarks/target/benchmarks.jar %1
+
+PAUSE